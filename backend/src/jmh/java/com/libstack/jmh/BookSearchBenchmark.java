@@ -0,0 +1,122 @@
+package com.libstack.jmh;
+
+import com.libstack.dto.BookDTO;
+import com.libstack.model.Book;
+import com.libstack.model.UuidV7Generator;
+import com.libstack.repository.BookFilter;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.BookSpecifications;
+import com.libstack.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranked full-text search over a seeded catalog, at the repository and through BookService.
+ * Rows are inserted with an ISBN prefix of JMH- and removed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookSearchBenchmark {
+
+    @Param({"100000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private BookRepository bookRepository;
+    private BookService bookService;
+    private String[] words;
+    private int next;
+    private final Pageable firstPage = PageRequest.of(0, 12);
+
+    @Setup
+    public void setUp() {
+        context = LibraryContext.start();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        bookRepository = context.getBean(BookRepository.class);
+        bookService = context.getBean(BookService.class);
+        words = generateWords(5_000);
+        seed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("DELETE FROM books WHERE isbn LIKE 'JMH-%'");
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> repositorySearch() {
+        BookFilter filter = BookFilter.search(nextWord());
+        return bookRepository.findAll(BookSpecifications.matching(filter),
+                BookSpecifications.stablePage(filter, firstPage));
+    }
+
+    @Benchmark
+    public Page<BookDTO> serviceSearch() {
+        return bookService.searchBooks(nextWord(), firstPage);
+    }
+
+    private String nextWord() {
+        next = (next + 1) % words.length;
+        return words[next];
+    }
+
+    private void seed() {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i;
+            String author = "Author " + random.nextInt(books / 10 + 1);
+            batch.add(new Object[]{UuidV7Generator.next(), title, author, "JMH-" + i, 1, now, now});
+            if (batch.size() == 5_000 || i == books - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO books (id, title, author, isbn, stock_quantity, created_at, updated_at) " +
+                                "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("VACUUM ANALYZE books");
+    }
+
+    private static String[] generateWords(int count) {
+        Random random = new Random(1);
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+}
@@ -0,0 +1,93 @@
+package com.libstack.jmh;
+
+import com.libstack.dto.LoanDTO;
+import com.libstack.model.Book;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.UserRepository;
+import com.libstack.service.LoanService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every thread borrows and returns the same book, so all of them contend on one stock row.
+ * Change the thread count with -t.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BorrowContentionBenchmark {
+
+    private static final String ISBN = "JMH-HOT-BOOK";
+
+    @State(Scope.Benchmark)
+    public static class Library {
+
+        ConfigurableApplicationContext context;
+        LoanService loanService;
+        UserRepository userRepository;
+        UUID bookId;
+
+        @Setup
+        public void setUp() {
+            context = LibraryContext.start();
+            loanService = context.getBean(LoanService.class);
+            userRepository = context.getBean(UserRepository.class);
+
+            Book book = new Book();
+            book.setTitle("Contended Title");
+            book.setAuthor("Benchmark");
+            book.setIsbn(ISBN);
+            book.setStockQuantity(1_000);
+            bookId = context.getBean(BookRepository.class).save(book).getId();
+        }
+
+        @TearDown
+        public void tearDown() {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            jdbcTemplate.update("DELETE FROM loans WHERE book_id = ?", bookId);
+            jdbcTemplate.update("DELETE FROM books WHERE id = ?", bookId);
+            jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'jmh-reader-%'");
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+
+        UUID userId;
+
+        @Setup
+        public void setUp(Library library) {
+            User user = new User();
+            user.setEmail("jmh-reader-" + Thread.currentThread().threadId() + "-" + System.nanoTime() + "@example.com");
+            user.setName("JMH Reader");
+            user.setRole("USER");
+            userId = library.userRepository.save(user).getId();
+        }
+    }
+
+    @Benchmark
+    public LoanDTO borrowAndReturn(Library library, Reader reader) {
+        LoanDTO loan = library.loanService.borrowBook(reader.userId, library.bookId);
+        return library.loanService.returnBook(loan.getId());
+    }
+}
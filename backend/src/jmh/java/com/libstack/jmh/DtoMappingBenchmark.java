@@ -0,0 +1,85 @@
+package com.libstack.jmh;
+
+import com.libstack.dto.BookDTO;
+import com.libstack.dto.LoanDTO;
+import com.libstack.model.Book;
+import com.libstack.model.Loan;
+import com.libstack.repository.BookFilter;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.CategoryRepository;
+import com.libstack.repository.HoldRepository;
+import com.libstack.repository.LoanRepository;
+import com.libstack.repository.UserRepository;
+import com.libstack.service.BookService;
+import com.libstack.service.HoldService;
+import com.libstack.service.LoanService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Entity to DTO mapping for a page of books and loans. The services are built directly over stubbed
+ * repositories, so the measurement is the private toDTO/toLoanDTO plus one constant stub call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DtoMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private BookService bookService;
+    private LoanService loanService;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        pageable = PageRequest.of(0, pageSize);
+
+        List<Book> books = SampleData.books(pageSize);
+        BookRepository bookRepository = mock(BookRepository.class);
+        when(bookRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(books, pageable, 10_000));
+        bookService = new BookService(bookRepository, mock(CategoryRepository.class), mock(HoldService.class),
+                event -> { });
+
+        List<Loan> loans = SampleData.loans(pageSize);
+        LoanRepository loanRepository = mock(LoanRepository.class);
+        when(loanRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(loans, pageable, 10_000));
+        loanService = new LoanService(loanRepository, bookRepository, mock(UserRepository.class),
+                mock(HoldRepository.class), mock(HoldService.class), new ConcurrentMapCacheManager(), event -> { });
+    }
+
+    @Benchmark
+    public Page<BookDTO> mapBooks() {
+        return bookService.getAllBooks(BookFilter.NONE, pageable);
+    }
+
+    @Benchmark
+    public Page<LoanDTO> mapLoans() {
+        return loanService.getAllLoans(pageable);
+    }
+}
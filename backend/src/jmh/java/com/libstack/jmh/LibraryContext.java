@@ -0,0 +1,27 @@
+package com.libstack.jmh;
+
+import com.libstack.LibraryApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application without a web server against the datasource from the test
+ * application.yml (a local PostgreSQL). Override it with -jvmArgsAppend "-Dspring.datasource.url=...".
+ */
+final class LibraryContext {
+
+    private LibraryContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as arguments so they override the test application.yml
+                .run("--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+    }
+}
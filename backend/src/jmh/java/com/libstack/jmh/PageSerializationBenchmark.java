@@ -0,0 +1,97 @@
+package com.libstack.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.libstack.dto.BookDTO;
+import com.libstack.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializes a Page&lt;BookDTO&gt; per wire format, envelope and compression. "page" is the legacy PageImpl
+ * envelope, "model" the PagedModel the controllers now return. Bytes on the wire are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"page", "model"})
+    private String envelope;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private Object body;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        List<BookDTO> books = SampleData.books(pageSize).stream().map(PageSerializationBenchmark::toDTO).toList();
+        Page<BookDTO> page = new PageImpl<>(books, PageRequest.of(0, pageSize), 10_000);
+        body = "model".equals(envelope) ? new PagedModel<>(page) : page;
+        System.out.printf("%nwire bytes: pageSize=%d format=%s envelope=%s gzip=%s bytes=%d%n",
+                pageSize, format, envelope, gzip, serializeBookPage().length);
+    }
+
+    @Benchmark
+    public byte[] serializeBookPage() throws IOException {
+        if (!gzip) {
+            return objectMapper.writeValueAsBytes(body);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static BookDTO toDTO(Book book) {
+        BookDTO dto = new BookDTO();
+        dto.setId(book.getId());
+        dto.setTitle(book.getTitle());
+        dto.setAuthor(book.getAuthor());
+        dto.setIsbn(book.getIsbn());
+        dto.setDescription(book.getDescription());
+        dto.setCoverUrl(book.getCoverUrl());
+        dto.setStockQuantity(book.getStockQuantity());
+        dto.setAvailableStock(book.getStockQuantity());
+        dto.setAvailable(book.isAvailable());
+        dto.setCategoryId(book.getCategory().getId());
+        dto.setCategoryName(book.getCategory().getName());
+        return dto;
+    }
+}
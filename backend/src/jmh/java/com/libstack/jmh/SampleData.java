@@ -0,0 +1,64 @@
+package com.libstack.jmh;
+
+import com.libstack.model.Book;
+import com.libstack.model.Category;
+import com.libstack.model.Loan;
+import com.libstack.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Detached entities shaped like a typical catalog page, for suites that do not touch the database.
+ */
+final class SampleData {
+
+    private SampleData() {
+    }
+
+    static List<Book> books(int count) {
+        Category category = new Category();
+        category.setId(UUID.randomUUID());
+        category.setName("Fiction");
+
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Book book = new Book();
+            book.setId(UUID.randomUUID());
+            book.setTitle("The Collected Works, Volume " + i);
+            book.setAuthor("Author " + i);
+            book.setIsbn("978-0-" + (100000 + i));
+            book.setDescription("A reasonably long description of volume " + i + " used to size the payload.");
+            book.setCoverUrl("https://covers.example.com/" + i + ".jpg");
+            book.setStockQuantity(i % 4);
+            book.setCategory(category);
+            book.setCreatedAt(LocalDateTime.now());
+            book.setUpdatedAt(LocalDateTime.now());
+            books.add(book);
+        }
+        return books;
+    }
+
+    static List<Loan> loans(int count) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("reader@example.com");
+        user.setName("Reader");
+
+        List<Loan> loans = new ArrayList<>(count);
+        for (Book book : books(count)) {
+            Loan loan = new Loan();
+            loan.setId(UUID.randomUUID());
+            loan.setUser(user);
+            loan.setBook(book);
+            loan.setBorrowedAt(LocalDateTime.now().minusDays(3));
+            loan.setDueDate(LocalDate.now().plusDays(11));
+            loan.setStatus("ACTIVE");
+            loans.add(loan);
+        }
+        return loans;
+    }
+}
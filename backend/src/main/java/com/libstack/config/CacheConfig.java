@@ -0,0 +1,27 @@
+package com.libstack.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS = "books";
+    public static final String CATEGORIES = "categories";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.spec}") String cacheSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(BOOKS, CATEGORIES);
+        cacheManager.setCacheSpecification(cacheSpec);
+        cacheManager.setAllowNullValues(false);
+        // Evictions issued inside a transaction are applied after commit, so a concurrent
+        // reader cannot re-populate an entry with the pre-commit state
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
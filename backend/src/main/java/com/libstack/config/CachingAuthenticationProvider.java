@@ -0,0 +1,105 @@
+package com.libstack.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.libstack.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+/**
+ * Authenticates LOCAL users by email and password, remembering successful verifications
+ * for a short time so repeated basic-auth requests do not pay for BCrypt every call.
+ * Only an HMAC of the password (keyed per process) is held in memory, never the password.
+ */
+@Component
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final DaoAuthenticationProvider delegate;
+    private final Cache<String, VerifiedCredential> verified;
+    private final SecretKeySpec hmacKey;
+
+    public CachingAuthenticationProvider(UserRepository userRepository,
+                                         PasswordEncoder passwordEncoder,
+                                         @Value("${app.security.credential-cache-ttl}") Duration ttl) {
+        this.delegate = new DaoAuthenticationProvider(passwordEncoder);
+        this.delegate.setUserDetailsService(email -> userRepository.findByEmail(email)
+                .filter(user -> "LOCAL".equals(user.getProvider()) && user.getPassword() != null)
+                .map(user -> User.withUsername(user.getEmail())
+                        .password(user.getPassword())
+                        .roles(user.getRole())
+                        .build())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email)));
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttl)
+                .build();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hmacKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        byte[] digest = digest(username, credentials.toString());
+        VerifiedCredential cached = verified.getIfPresent(username);
+        if (cached != null && MessageDigest.isEqual(cached.digest(), digest)) {
+            return cached.authentication();
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        verified.put(username, new VerifiedCredential(digest, result));
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    /**
+     * Drops the remembered verification for a user whose role or account changed.
+     */
+    public void evict(String username) {
+        verified.invalidate(username);
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private record VerifiedCredential(byte[] digest, Authentication authentication) {
+    }
+}
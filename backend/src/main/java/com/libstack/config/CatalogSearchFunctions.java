@@ -0,0 +1,35 @@
+package com.libstack.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.function.SqlColumn;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Exposes the full-text column and operators to JPQL and the Criteria API. search_vector is generated
+ * by PostgreSQL and not mapped on Book, so it is addressed through any column of the book row:
+ * {@code fts_match(search_vector(b.id), :tsQuery)} renders {@code b.search_vector @@ to_tsquery(...)}.
+ * Registered through META-INF/services.
+ */
+public class CatalogSearchFunctions implements FunctionContributor {
+
+    public static final String SEARCH_VECTOR = "search_vector";
+    public static final String FTS_MATCH = "fts_match";
+    public static final String FTS_RANK = "fts_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        BasicType<String> string = types.resolve(StandardBasicTypes.STRING);
+        BasicType<Boolean> bool = types.resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> number = types.resolve(StandardBasicTypes.DOUBLE);
+
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        registry.register(SEARCH_VECTOR, new SqlColumn("search_vector", string));
+        registry.registerPattern(FTS_MATCH, "(?1 @@ to_tsquery('simple', ?2))", bool);
+        registry.registerPattern(FTS_RANK, "ts_rank(?1, to_tsquery('simple', ?2))", number);
+    }
+}
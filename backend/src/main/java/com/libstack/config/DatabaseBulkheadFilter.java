@@ -0,0 +1,81 @@
+package com.libstack.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent /api requests when requests run on virtual threads. Platform threads were implicitly
+ * limited by the Tomcat pool; virtual threads are not, and open-in-view keeps a connection for the whole
+ * request, so without this thousands of clients would queue inside Hikari and fail on its timeout.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class DatabaseBulkheadFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    @Autowired
+    public DatabaseBulkheadFilter(MeterRegistry meterRegistry,
+                                  @Value("${app.bulkhead.permits}") int permits,
+                                  @Value("${app.bulkhead.acquire-timeout}") Duration acquireTimeout) {
+        this(permits, acquireTimeout);
+        Gauge.builder("library.bulkhead.available", this.permits, Semaphore::availablePermits)
+                .description("Free /api request permits")
+                .register(meterRegistry);
+        Gauge.builder("library.bulkhead.waiting", this.permits, Semaphore::getQueueLength)
+                .description("Requests waiting for a permit")
+                .register(meterRegistry);
+    }
+
+    DatabaseBulkheadFilter(int permits, Duration acquireTimeout) {
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, retry shortly");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
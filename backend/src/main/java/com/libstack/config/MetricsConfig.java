@@ -0,0 +1,28 @@
+package com.libstack.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /** Timer recorded for every public method of classes annotated with {@code @Timed(SERVICE_TIMER)}. */
+    public static final String SERVICE_TIMER = "library.service";
+
+    /** Distribution of SQL statements issued while handling one HTTP request. */
+    public static final String STATEMENTS_PER_REQUEST = "library.http.statements";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer(QueryCountInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
@@ -0,0 +1,58 @@
+package com.libstack.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each API request issued, tagged with the matched route,
+ * so N+1 regressions show up as a shifted distribution rather than only as latency.
+ * Runs ahead of the security chain so credential lookups are counted too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final QueryCountInspector inspector;
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountFilter(QueryCountInspector inspector, MeterRegistry meterRegistry) {
+        this.inspector = inspector;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        inspector.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = inspector.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(MetricsConfig.STATEMENTS_PER_REQUEST)
+                    .description("SQL statements issued per HTTP request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
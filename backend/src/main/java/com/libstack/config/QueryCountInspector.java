@@ -0,0 +1,53 @@
+package com.libstack.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and {@link #stop()}.
+ * Statements issued outside a started window (schedulers, startup) are not counted. {@link #capture(Runnable)}
+ * records the statements themselves, for plan checks of generated SQL.
+ */
+@Component
+public class QueryCountInspector implements StatementInspector {
+
+    private final ThreadLocal<int[]> counter = new ThreadLocal<>();
+    private final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = counter.get();
+        if (count != null) {
+            count[0]++;
+        }
+        List<String> statements = captured.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public void start() {
+        counter.set(new int[1]);
+    }
+
+    public int stop() {
+        int[] count = counter.get();
+        counter.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    public List<String> capture(Runnable work) {
+        List<String> statements = new ArrayList<>();
+        captured.set(statements);
+        try {
+            work.run();
+        } finally {
+            captured.remove();
+        }
+        return statements;
+    }
+}
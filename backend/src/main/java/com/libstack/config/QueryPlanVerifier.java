@@ -0,0 +1,269 @@
+package com.libstack.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.libstack.repository.BookFilter;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.BookSpecifications;
+import com.libstack.repository.CategoryRepository;
+import com.libstack.repository.HoldRepository;
+import com.libstack.repository.LoanRepository;
+import com.libstack.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Runs each repository query with sample arguments, captures the SQL Hibernate issued for it through
+ * {@link QueryCountInspector#capture(Runnable)} and EXPLAINs those statements, reporting sequential scans of
+ * tables with at least app.schema.plan-check.min-rows estimated rows. With app.schema.plan-check.enabled, any
+ * such scan fails startup. The calls run with the second-level and query caches ignored, so that every one
+ * reaches the database, in a transaction that is rolled back. Each statement is prepared and explained with
+ * plan_cache_mode = force_generic_plan, so the plan does not depend on the sample values. Whole-table reads
+ * such as unfiltered listings and their totals scan by design and are not listed. Criteria queries are
+ * generated per filter combination; {@link #verify(String, List)} checks their SQL as captured by the caller.
+ */
+@Component
+public class QueryPlanVerifier implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanVerifier.class);
+    private static final Pattern PARAMETER = Pattern.compile("\\$(\\d+)");
+    private static final UUID ID = new UUID(0, 0);
+    private static final String NAME = "plan-check";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Past the first page, Spring Data issues the count query as well
+    private static final Pageable SECOND_PAGE = PageRequest.of(1, 12);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final QueryCountInspector queryCountInspector;
+    private final List<PlanCheck> checks;
+    private final boolean enabled;
+    private final long minRows;
+
+    public QueryPlanVerifier(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager, QueryCountInspector queryCountInspector,
+                             BookRepository bookRepository, LoanRepository loanRepository,
+                             HoldRepository holdRepository, UserRepository userRepository,
+                             CategoryRepository categoryRepository,
+                             @Value("${app.schema.plan-check.enabled}") boolean enabled,
+                             @Value("${app.schema.plan-check.min-rows}") long minRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queryCountInspector = queryCountInspector;
+        this.checks = checks(bookRepository, loanRepository, holdRepository, userRepository, categoryRepository);
+        this.enabled = enabled;
+        this.minRows = minRows;
+    }
+
+    private static List<PlanCheck> checks(BookRepository books, LoanRepository loans, HoldRepository holds,
+                                          UserRepository users, CategoryRepository categories) {
+        BookFilter category = new BookFilter(null, ID, null, null, null, null);
+        BookFilter search = BookFilter.search(NAME);
+        return List.of(
+                new PlanCheck("BookRepository.findByIsbn", () -> books.findByIsbn(NAME)),
+                new PlanCheck("BookRepository.findExistingIsbns", () -> books.findExistingIsbns(List.of(NAME))),
+                new PlanCheck("BookRepository.findAll (search)", () -> books.findAll(
+                        BookSpecifications.matching(search), BookSpecifications.stablePage(search, SECOND_PAGE))),
+                new PlanCheck("BookRepository.findAll (category)", () -> books.findAll(
+                        BookSpecifications.matching(category), BookSpecifications.stablePage(category, SECOND_PAGE))),
+                new PlanCheck("BookRepository.findFirstByTitleKeyset", () -> books.findFirstByTitleKeyset(Limit.of(13))),
+                new PlanCheck("BookRepository.findByTitleKeysetAfter",
+                        () -> books.findByTitleKeysetAfter(NAME, ID, Limit.of(13))),
+                new PlanCheck("BookRepository.decrementStock", () -> books.decrementStock(ID)),
+                new PlanCheck("LoanRepository.findByUserId", () -> loans.findByUserId(ID, SECOND_PAGE)),
+                new PlanCheck("LoanRepository.findByUserIdAndStatus", () -> loans.findByUserIdAndStatus(ID, "ACTIVE")),
+                new PlanCheck("LoanRepository.findActiveLoansByUserId", () -> loans.findActiveLoansByUserId(ID)),
+                new PlanCheck("LoanRepository.findActiveBookIdsByUserId", () -> loans.findActiveBookIdsByUserId(ID)),
+                new PlanCheck("LoanRepository.findActiveLoansByBookId", () -> loans.findActiveLoansByBookId(ID)),
+                new PlanCheck("LoanRepository.findOverdueLoans", () -> loans.findOverdueLoans(SECOND_PAGE)),
+                new PlanCheck("LoanRepository.markOverdue", () -> loans.markOverdue(EPOCH.toLocalDate())),
+                new PlanCheck("LoanRepository.findWithUserAndBookById", () -> loans.findWithUserAndBookById(ID)),
+                new PlanCheck("LoanRepository.findAllWithUserAndBookByIdIn",
+                        () -> loans.findAllWithUserAndBookByIdIn(List.of(ID))),
+                new PlanCheck("LoanRepository.findFirstByBorrowedAtKeyset",
+                        () -> loans.findFirstByBorrowedAtKeyset(Limit.of(21))),
+                new PlanCheck("LoanRepository.findByBorrowedAtKeysetBefore",
+                        () -> loans.findByBorrowedAtKeysetBefore(EPOCH, ID, Limit.of(21))),
+                new PlanCheck("LoanRepository.findFirstByUserIdBorrowedAtKeyset",
+                        () -> loans.findFirstByUserIdBorrowedAtKeyset(ID, Limit.of(11))),
+                new PlanCheck("LoanRepository.findByUserIdBorrowedAtKeysetBefore",
+                        () -> loans.findByUserIdBorrowedAtKeysetBefore(ID, EPOCH, ID, Limit.of(11))),
+                new PlanCheck("LoanRepository.markReturned", () -> loans.markReturned(ID, EPOCH)),
+                new PlanCheck("HoldRepository.findNextWaiting", () -> holds.findNextWaiting(ID)),
+                new PlanCheck("HoldRepository.countAhead", () -> holds.countAhead(ID, EPOCH, ID)),
+                new PlanCheck("HoldRepository.fulfillReady", () -> holds.fulfillReady(ID, ID, EPOCH)),
+                new PlanCheck("HoldRepository.findExpiredReady", () -> holds.findExpiredReady(EPOCH)),
+                new PlanCheck("HoldRepository.findQueuePositions", () -> holds.findQueuePositions(ID)),
+                new PlanCheck("HoldRepository.findOpenHoldsByUserId", () -> holds.findOpenHoldsByUserId(ID)),
+                new PlanCheck("UserRepository.findByEmail", () -> users.findByEmail(NAME)),
+                new PlanCheck("UserRepository.findByProviderAndProviderId",
+                        () -> users.findByProviderAndProviderId(NAME, NAME)),
+                new PlanCheck("UserRepository.reserveLoanSlot", () -> users.reserveLoanSlot(ID, 0)),
+                new PlanCheck("UserRepository.recountLoans", () -> users.recountLoans(ID)),
+                new PlanCheck("CategoryRepository.findByName", () -> categories.findByName(NAME))
+        );
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        List<String> violations = verify();
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("Sequential scans on large tables:\n  " + String.join("\n  ", violations));
+        }
+        log.info("Query plan check passed for {} repository queries", checks.size());
+    }
+
+    /**
+     * Returns one "query: Seq Scan on table" entry per offending plan node, and one "query: issued no SQL"
+     * entry per call that never reached the database; empty when every plan reaches large tables through an
+     * index. Joins a surrounding transaction and marks it rollback-only.
+     */
+    public List<String> verify() {
+        List<PlannedStatement> statements = new ArrayList<>();
+        List<String> silent = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            Session session = entityManager.unwrap(Session.class);
+            CacheMode cacheMode = session.getCacheMode();
+            session.setCacheMode(CacheMode.IGNORE);
+            try {
+                for (PlanCheck check : checks) {
+                    List<String> captured = queryCountInspector.capture(check.call());
+                    if (captured.isEmpty()) {
+                        silent.add(check.query() + ": issued no SQL");
+                    }
+                    captured.forEach(sql -> statements.add(new PlannedStatement(check.query(), numberParameters(sql))));
+                }
+            } finally {
+                session.setCacheMode(cacheMode);
+            }
+        });
+        List<String> violations = explain(statements);
+        violations.addAll(silent);
+        return violations;
+    }
+
+    /**
+     * Same as {@link #verify()} for JDBC statements as Hibernate issued them, with {@code ?} placeholders.
+     */
+    public List<String> verify(String query, List<String> statements) {
+        return explain(statements.stream().map(sql -> new PlannedStatement(query, numberParameters(sql))).toList());
+    }
+
+    private List<String> explain(List<PlannedStatement> statements) {
+        Set<String> largeTables = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT relname FROM pg_class WHERE relkind = 'r' " +
+                "AND relnamespace = current_schema()::regnamespace AND reltuples >= ?", String.class, minRows));
+        List<String> violations = new ArrayList<>();
+        if (largeTables.isEmpty()) {
+            return violations;
+        }
+        // PREPARE and the session setting must share one connection
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                try {
+                    for (PlannedStatement planned : statements) {
+                        collectSeqScans(readPlan(explain(statement, planned.sql())), largeTables, planned.query(),
+                                violations);
+                    }
+                } finally {
+                    statement.execute("RESET plan_cache_mode");
+                }
+            }
+            return null;
+        });
+        return violations;
+    }
+
+    // PREPARE takes $n parameters; placeholders inside quoted literals are left alone
+    static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        boolean quoted = false;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static String explain(Statement statement, String sql) throws SQLException {
+        int parameters = PARAMETER.matcher(sql).results()
+                .mapToInt(match -> Integer.parseInt(match.group(1)))
+                .max()
+                .orElse(0);
+        String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+        statement.execute("PREPARE plan_check AS " + sql);
+        try (ResultSet plan = statement.executeQuery("EXPLAIN (FORMAT JSON) EXECUTE plan_check" + arguments)) {
+            plan.next();
+            return plan.getString(1);
+        } finally {
+            statement.execute("DEALLOCATE plan_check");
+        }
+    }
+
+    private JsonNode readPlan(String plan) {
+        try {
+            return objectMapper.readTree(plan).get(0).get("Plan");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable EXPLAIN output", e);
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, Set<String> largeTables, String query, List<String> violations) {
+        String relation = node.path("Relation Name").asText(null);
+        if ("Seq Scan".equals(node.path("Node Type").asText()) && largeTables.contains(relation)) {
+            violations.add(query + ": Seq Scan on " + relation);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, largeTables, query, violations);
+        }
+    }
+
+    private record PlanCheck(String query, Runnable call) {
+    }
+
+    private record PlannedStatement(String query, String sql) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.libstack.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in app.datasource.replicas. The replica pools copy the
+ * primary's credentials and pool settings. Flyway always runs against the primary. Read-only transactions
+ * do not store into the shared caches, see {@link ReplicaCacheModeJpaDialect}, so reads that fill caches or
+ * compute versions run in read-write transactions.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas:}'.isBlank()")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    private final Duration readYourWritesWindow;
+
+    public ReadReplicaConfig(@Value("${app.datasource.read-your-writes-window}") Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             @Value("${app.datasource.replicas}") List<String> urls,
+                                                             MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(url.trim());
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicas);
+        Gauge.builder("library.datasource.replicas.available", routing, ReplicaRoutingDataSource::availableReplicas)
+                .description("Replicas currently taking reads")
+                .register(meterRegistry);
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // Hand the connection back after each transaction. Otherwise open-in-view keeps the first one for the
+    // whole request, and a write following a read would run on the replica it was routed to
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    // Boot's own adapter, configured the same way, with a dialect that sets the cache mode per transaction
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        HibernateJpaDialect dialect = new ReplicaCacheModeJpaDialect();
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return dialect;
+            }
+        };
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (properties.getDatabasePlatform() != null) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               @Value("${app.datasource.replica-max-lag}") Duration maxLag) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, maxLag);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesWindow)).addPathPatterns("/api/**");
+    }
+
+    public static class ReplicaLagMonitor {
+
+        private final ReplicaRoutingDataSource routing;
+        private final Duration maxLag;
+
+        ReplicaLagMonitor(ReplicaRoutingDataSource routing, Duration maxLag) {
+            this.routing = routing;
+            this.maxLag = maxLag;
+        }
+
+        @Scheduled(fixedDelayString = "${app.datasource.replica-check-interval}")
+        public void check() {
+            routing.checkReplicas(maxLag);
+        }
+    }
+}
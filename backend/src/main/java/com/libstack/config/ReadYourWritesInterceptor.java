@@ -0,0 +1,56 @@
+package com.libstack.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes for replica routing: after a user's successful write request (a borrow, a return, a
+ * hold), that user's requests read from the primary for the configured window, so they see their own
+ * change even while the replicas lag behind it.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesInterceptor(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && recentWriters.getIfPresent(principal.getName()) != null) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReplicaRoutingDataSource.unpin();
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && !SAFE_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+            recentWriters.put(principal.getName(), Boolean.TRUE);
+        }
+    }
+
+    // Streaming responses finish on another thread; release this one
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        ReplicaRoutingDataSource.unpin();
+    }
+}
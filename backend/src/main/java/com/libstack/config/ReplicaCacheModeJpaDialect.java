@@ -0,0 +1,30 @@
+package com.libstack.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps replica reads out of the shared second-level and query caches. Read-only transactions that may be
+ * routed to a replica bypass the cache for stores (Hibernate's CacheMode.GET): they use cached entries but
+ * never store what they load, so a row read from a lagging replica cannot replace the primary's copy for
+ * every other request. The mode is set as an EntityManager property because find() reads it from there, and
+ * is reset for every other transaction, since the EntityManager outlives one transaction under open-in-view.
+ */
+class ReplicaCacheModeJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        boolean replica = definition.isReadOnly() && !ReplicaRoutingDataSource.isPinnedToPrimary();
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE,
+                replica ? CacheStoreMode.BYPASS : CacheStoreMode.USE);
+        return super.beginTransaction(entityManager, definition);
+    }
+}
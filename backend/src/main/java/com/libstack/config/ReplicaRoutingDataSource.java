@@ -0,0 +1,123 @@
+package com.libstack.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replicas, round robin, and everything else to the primary. A replica
+ * only takes reads while {@link #checkReplicas} finds it reachable and within the allowed replay lag; with
+ * none available, reads fall back to the primary. Must be wrapped in a LazyConnectionDataSourceProxy, so the
+ * route is chosen at the first statement, once the transaction's read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Zero once everything received is replayed, so an idle primary does not look like lag
+    private static final String REPLAY_LAG_SQL = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() " +
+            "THEN 0 ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    // Reads on this thread go to the primary until unpin(), see ReadYourWritesInterceptor
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.available) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    public void checkReplicas(Duration maxLag) {
+        for (Replica replica : replicas) {
+            boolean wasAvailable = replica.available;
+            try {
+                Double lagSeconds = new JdbcTemplate(replica.dataSource).queryForObject(REPLAY_LAG_SQL, Double.class);
+                replica.lagMillis = Math.round(lagSeconds * 1000);
+                replica.available = replica.lagMillis <= maxLag.toMillis();
+                if (wasAvailable && !replica.available) {
+                    log.warn("Replica {} is {} ms behind, reading from primary", replica.name, replica.lagMillis);
+                }
+            } catch (RuntimeException ex) {
+                replica.available = false;
+                if (wasAvailable) {
+                    log.warn("Replica {} is unreachable, reading from primary: {}", replica.name, ex.getMessage());
+                }
+            }
+            if (!wasAvailable && replica.available) {
+                log.info("Replica {} is taking reads ({} ms behind)", replica.name, replica.lagMillis);
+            }
+        }
+    }
+
+    public int availableReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.available).count();
+    }
+
+    // The primary pool is a bean of its own; the replica pools are only referenced from here
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        // Unavailable until the first check has measured the lag
+        private volatile boolean available;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
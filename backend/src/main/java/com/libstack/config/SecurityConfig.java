@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -21,7 +22,8 @@ public class SecurityConfig {
         private String corsOrigin;
 
         @Bean
-        public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                        JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
                 http
                                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                                 .csrf(csrf -> csrf.disable())
@@ -37,10 +39,16 @@ public class SecurityConfig {
                                                                 "/api/v1/categories/**")
                                                 .permitAll()
                                                 .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
+                                                // Scraped by Prometheus inside the deployment network, not proxied by nginx
+                                                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                                                .requestMatchers("/actuator/**").hasRole("ADMIN")
                                                 .requestMatchers("/api/v1/**").authenticated()
                                                 .anyRequest().permitAll())
                                 // Use Basic Auth (optional, for Postman testing) or Form Login
                                 .httpBasic(basic -> {})
+                                // Stateless bearer tokens issued by /api/v1/auth/login
+                                .oauth2ResourceServer(resourceServer -> resourceServer
+                                                .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter)))
                                 .logout(logout -> logout
                                                 .logoutSuccessUrl("/")
                                                 .invalidateHttpSession(true)
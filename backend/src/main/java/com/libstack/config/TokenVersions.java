@@ -0,0 +1,83 @@
+package com.libstack.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.libstack.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Rejects bearer tokens issued before the user's current token version, so a role change or account deletion
+ * takes effect before the token expires. Versions are cached per user for the credential cache TTL; other
+ * instances notice a revocation once their entry expires.
+ */
+@Component
+public class TokenVersions implements OAuth2TokenValidator<Jwt> {
+
+    // Cached for users that no longer exist, matches no token
+    private static final int NO_USER = -1;
+
+    private static final OAuth2Error REVOKED =
+            new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "The token has been revoked", null);
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, Integer> versions;
+
+    public TokenVersions(UserRepository userRepository,
+                         @Value("${app.security.credential-cache-ttl}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public int current(UUID userId) {
+        return versions.get(userId, id -> userRepository.findTokenVersion(id).orElse(NO_USER));
+    }
+
+    /**
+     * Forgets the cached version once the surrounding transaction commits, so that the reload sees the
+     * bumped version rather than the one still visible before the commit.
+     */
+    public void evict(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.invalidate(userId);
+                }
+            });
+        } else {
+            versions.invalidate(userId);
+        }
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        String userId = jwt.getClaimAsString(JwtConfig.USER_ID_CLAIM);
+        Object version = jwt.getClaim(JwtConfig.TOKEN_VERSION_CLAIM);
+        if (userId == null || !(version instanceof Number number)) {
+            return OAuth2TokenValidatorResult.failure(REVOKED);
+        }
+        int current;
+        try {
+            current = current(UUID.fromString(userId));
+        } catch (IllegalArgumentException ex) {
+            return OAuth2TokenValidatorResult.failure(REVOKED);
+        }
+        return current != NO_USER && current == number.intValue()
+                ? OAuth2TokenValidatorResult.success()
+                : OAuth2TokenValidatorResult.failure(REVOKED);
+    }
+}
@@ -1,17 +1,30 @@
 package com.libstack.controller;
 
+import com.libstack.dto.BookImportResultDTO;
+import com.libstack.dto.CacheStatsDTO;
+import com.libstack.dto.CursorPage;
 import com.libstack.dto.LoanDTO;
 import com.libstack.dto.UserDTO;
+import com.libstack.service.BookImportService;
+import com.libstack.service.CacheStatsService;
+import com.libstack.service.DataFormat;
+import com.libstack.service.ExportService;
 import com.libstack.service.LoanService;
 import com.libstack.service.UserService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/admin")
@@ -20,10 +33,17 @@ public class AdminController {
 
     private final UserService userService;
     private final LoanService loanService;
+    private final CacheStatsService cacheStatsService;
+    private final BookImportService bookImportService;
+    private final ExportService exportService;
 
-    public AdminController(UserService userService, LoanService loanService) {
+    public AdminController(UserService userService, LoanService loanService, CacheStatsService cacheStatsService,
+                           BookImportService bookImportService, ExportService exportService) {
         this.userService = userService;
         this.loanService = loanService;
+        this.cacheStatsService = cacheStatsService;
+        this.bookImportService = bookImportService;
+        this.exportService = exportService;
     }
 
     @GetMapping("/users")
@@ -33,13 +53,13 @@ public class AdminController {
     }
 
     @PutMapping("/users/{id}/role")
-    public ResponseEntity<UserDTO> updateUserRole(@PathVariable String id, @RequestBody String role) {
+    public ResponseEntity<UserDTO> updateUserRole(@PathVariable UUID id, @RequestBody String role) {
         UserDTO user = userService.updateUserRole(id, role);
         return ResponseEntity.ok(user);
     }
 
     @DeleteMapping("/users/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable String id) {
+    public ResponseEntity<Void> deleteUser(@PathVariable UUID id) {
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
@@ -50,9 +70,69 @@ public class AdminController {
         return ResponseEntity.ok(loans);
     }
 
+    @GetMapping(value = "/loans", params = "after")
+    public ResponseEntity<CursorPage<LoanDTO>> getAllLoansBefore(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<LoanDTO> loans = loanService.getAllLoansBefore(after, size);
+        return ResponseEntity.ok(loans);
+    }
+
     @GetMapping("/loans/overdue")
-    public ResponseEntity<List<LoanDTO>> getOverdueLoans() {
-        List<LoanDTO> loans = loanService.getOverdueLoans();
+    public ResponseEntity<Page<LoanDTO>> getOverdueLoans(@PageableDefault(size = 20) Pageable pageable) {
+        Page<LoanDTO> loans = loanService.getOverdueLoans(pageable);
         return ResponseEntity.ok(loans);
     }
+
+    @PostMapping(value = "/books/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<BookImportResultDTO> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        BookImportResultDTO result = bookImportService.importBooks(body, DataFormat.fromMediaType(contentType));
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/books/imports")
+    public ResponseEntity<List<BookImportResultDTO>> getRecentImports() {
+        List<BookImportResultDTO> imports = bookImportService.getRecentImports();
+        return ResponseEntity.ok(imports);
+    }
+
+    @GetMapping("/books/imports/{id}")
+    public ResponseEntity<BookImportResultDTO> getImport(@PathVariable String id) {
+        BookImportResultDTO result = bookImportService.getImport(id);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/export/books")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        DataFormat dataFormat = DataFormat.fromExtension(format);
+        return export("books", dataFormat, gzip, out -> exportService.exportBooks(out, dataFormat, gzip));
+    }
+
+    @GetMapping("/export/loans")
+    public ResponseEntity<StreamingResponseBody> exportLoans(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        DataFormat dataFormat = DataFormat.fromExtension(format);
+        return export("loans", dataFormat, gzip, out -> exportService.exportLoans(out, dataFormat, gzip));
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        List<CacheStatsDTO> stats = cacheStatsService.getCacheStats();
+        return ResponseEntity.ok(stats);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, DataFormat format, boolean gzip,
+                                                         StreamingResponseBody body) {
+        String filename = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
 }
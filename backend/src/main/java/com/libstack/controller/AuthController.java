@@ -1,6 +1,8 @@
 package com.libstack.controller;
 
+import com.libstack.dto.LoginResponse;
 import com.libstack.dto.UserDTO;
+import com.libstack.service.TokenService;
 import com.libstack.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -14,9 +16,11 @@ import com.libstack.config.CustomOAuth2User;
 public class AuthController {
 
     private final UserService userService;
+    private final TokenService tokenService;
 
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, TokenService tokenService) {
         this.userService = userService;
+        this.tokenService = tokenService;
     }
 
     @PostMapping("/register")
@@ -25,11 +29,9 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<UserDTO> login(@RequestBody @jakarta.validation.Valid com.libstack.dto.LoginRequest request) {
-        // In a real app, you would issue a JWT here. 
-        // For now, we return UserDTO. Since basic auth is requested, we might need Basic Auth header support or just custom login.
-        // Given the prompt "add basic register and login", I will implement a custom endpoint that verifies password.
-        return ResponseEntity.ok(userService.loginUser(request));
+    public ResponseEntity<LoginResponse> login(@RequestBody @jakarta.validation.Valid com.libstack.dto.LoginRequest request) {
+        // Verify the password once and hand back a signed token; later requests send it as a Bearer header
+        return ResponseEntity.ok(tokenService.issueToken(userService.loginUser(request)));
     }
 
     @GetMapping("/user")
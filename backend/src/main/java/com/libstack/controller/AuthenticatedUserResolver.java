@@ -0,0 +1,32 @@
+package com.libstack.controller;
+
+import com.libstack.config.JwtConfig;
+import com.libstack.service.UserService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Component
+public class AuthenticatedUserResolver {
+
+    private final UserService userService;
+
+    public AuthenticatedUserResolver(UserService userService) {
+        this.userService = userService;
+    }
+
+    // Bearer tokens carry the user id; session and basic logins are resolved by email
+    public UUID getUserId(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken jwt) {
+            return UUID.fromString(jwt.getToken().getClaimAsString(JwtConfig.USER_ID_CLAIM));
+        }
+        String email = authentication.getName();
+        if (authentication instanceof OAuth2AuthenticationToken oauth2Token) {
+            email = oauth2Token.getPrincipal().getAttribute("email");
+        }
+        return userService.getUserByEmail(email).getId();
+    }
+}
@@ -1,54 +1,121 @@
 package com.libstack.controller;
 
 import com.libstack.dto.BookDTO;
+import com.libstack.dto.BookSuggestionDTO;
 import com.libstack.dto.CreateBookRequest;
+import com.libstack.dto.CursorPage;
 import com.libstack.dto.UpdateBookRequest;
+import com.libstack.repository.BookFilter;
 import com.libstack.service.BookService;
+import com.libstack.service.BookSuggestIndex;
+import com.libstack.service.RecommendationService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/books")
 public class BookController {
 
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_RELATED = 20;
+
     private final BookService bookService;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final RecommendationService recommendationService;
+    private final ConditionalGet conditionalGet;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookSuggestIndex bookSuggestIndex,
+                          RecommendationService recommendationService, ConditionalGet conditionalGet) {
         this.bookService = bookService;
+        this.bookSuggestIndex = bookSuggestIndex;
+        this.recommendationService = recommendationService;
+        this.conditionalGet = conditionalGet;
     }
 
     @GetMapping
     public ResponseEntity<Page<BookDTO>> getAllBooks(
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String category,
+            @RequestParam(required = false) UUID category,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate addedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate addedTo,
+            @PageableDefault(size = 12) Pageable pageable,
+            WebRequest webRequest) {
+        BookFilter filter = toFilter(search, category, available, author, addedFrom, addedTo);
+        return conditionalGet.respond(webRequest, bookService::getCatalogVersion,
+                () -> bookService.getAllBooks(filter, pageable));
+    }
+
+    @GetMapping(params = {"fields", "!after"})
+    public ResponseEntity<Page<Map<String, Object>>> getBookFields(
+            @RequestParam String fields,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) UUID category,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate addedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate addedTo,
+            @PageableDefault(size = 12) Pageable pageable,
+            WebRequest webRequest) {
+        BookFilter filter = toFilter(search, category, available, author, addedFrom, addedTo);
+        return conditionalGet.respond(webRequest, bookService::getCatalogVersion,
+                () -> bookService.getBookFields(fields, filter, pageable));
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPage<BookDTO>> getBooksAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) UUID category,
             @RequestParam(required = false) Boolean available,
-            @PageableDefault(size = 12) Pageable pageable) {
-
-        Page<BookDTO> books;
-
-        if (search != null && !search.isEmpty()) {
-            books = bookService.searchBooks(search, pageable);
-        } else if (category != null && !category.isEmpty()) {
-            books = bookService.getBooksByCategory(category, pageable);
-        } else if (Boolean.TRUE.equals(available)) {
-            books = bookService.getAvailableBooks(pageable);
-        } else {
-            books = bookService.getAllBooks(pageable);
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate addedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate addedTo,
+            WebRequest webRequest) {
+        if (fields != null) {
+            throw new RuntimeException("fields cannot be combined with after; keyset pages return whole books");
         }
+        BookFilter filter = toFilter(search, category, available, author, addedFrom, addedTo);
+        return conditionalGet.respond(webRequest, bookService::getCatalogVersion,
+                () -> bookService.getBooksAfter(filter, after, size));
+    }
 
-        return ResponseEntity.ok(books);
+    // Served from memory without touching the database, so it can be called on every keystroke
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestionDTO>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookSuggestIndex.suggest(q, Math.clamp(limit, 1, MAX_SUGGESTIONS)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable String id) {
-        BookDTO book = bookService.getBookById(id);
-        return ResponseEntity.ok(book);
+    public ResponseEntity<BookDTO> getBookById(@PathVariable UUID id, WebRequest webRequest) {
+        return conditionalGet.respondFromPrimary(webRequest, () -> bookService.getBookVersion(id),
+                () -> bookService.getBookById(id));
+    }
+
+    // "Readers also borrowed": books most often borrowed by readers of this one
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<BookDTO>> getRelatedBooks(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recommendationService.getRelatedBooks(id, Math.clamp(limit, 1, MAX_RELATED)));
     }
 
     @PostMapping
@@ -60,15 +127,26 @@ public class BookController {
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BookDTO> updateBook(@PathVariable String id, @RequestBody UpdateBookRequest request) {
+    public ResponseEntity<BookDTO> updateBook(@PathVariable UUID id, @RequestBody UpdateBookRequest request) {
         BookDTO book = bookService.updateBook(id, request);
         return ResponseEntity.ok(book);
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteBook(@PathVariable String id) {
+    public ResponseEntity<Void> deleteBook(@PathVariable UUID id) {
         bookService.deleteBook(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Blank parameters are treated as absent so that empty form fields do not filter anything out
+    private static BookFilter toFilter(String search, UUID category, Boolean available, String author,
+                                       LocalDate addedFrom, LocalDate addedTo) {
+        return new BookFilter(blankToNull(search), category, available, blankToNull(author),
+                addedFrom, addedTo);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
 }
@@ -7,29 +7,33 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/categories")
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ConditionalGet conditionalGet;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, ConditionalGet conditionalGet) {
         this.categoryService = categoryService;
+        this.conditionalGet = conditionalGet;
     }
 
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
-        List<CategoryDTO> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(WebRequest webRequest) {
+        return conditionalGet.respondFromPrimary(webRequest, categoryService::getCategoriesVersion,
+                categoryService::getAllCategories);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable String id) {
-        CategoryDTO category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(category);
+    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable UUID id, WebRequest webRequest) {
+        return conditionalGet.respond(webRequest, () -> categoryService.getCategoryVersion(id),
+                () -> categoryService.getCategoryById(id));
     }
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -39,14 +43,14 @@ public class CategoryController {
     }
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CategoryDTO> updateCategory(@PathVariable String id,
+    public ResponseEntity<CategoryDTO> updateCategory(@PathVariable UUID id,
             @RequestBody CreateCategoryRequest request) {
         CategoryDTO category = categoryService.updateCategory(id, request);
         return ResponseEntity.ok(category);
     }
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteCategory(@PathVariable String id) {
+    public ResponseEntity<Void> deleteCategory(@PathVariable UUID id) {
         categoryService.deleteCategory(id);
         return ResponseEntity.noContent().build();
     }
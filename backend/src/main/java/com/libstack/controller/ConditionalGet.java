@@ -0,0 +1,73 @@
+package com.libstack.controller;
+
+import com.libstack.service.ResourceVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Answers catalog reads with ETag, Last-Modified and Cache-Control, and short-circuits with 304
+ * before the body is built when the client's validators still match. The version and the body are
+ * read in one transaction, so both come from the same database: a lagging replica must not pair its
+ * old body with the primary's new ETag, which caches would then keep and revalidate.
+ */
+@Component
+public class ConditionalGet {
+
+    private final CacheControl anonymousCacheControl;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate readWrite;
+
+    public ConditionalGet(@Value("${app.http.catalog-max-age}") Duration maxAge,
+                          PlatformTransactionManager transactionManager) {
+        this.anonymousCacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    /** Reads the version and the body in one read-only transaction, on a replica when one is configured. */
+    public <T> ResponseEntity<T> respond(WebRequest request, Supplier<ResourceVersion> version, Supplier<T> body) {
+        return readOnly.execute(status -> respond(request, version.get(), body));
+    }
+
+    /** Same as {@link #respond}, on the primary, for bodies that fill a shared cache. */
+    public <T> ResponseEntity<T> respondFromPrimary(WebRequest request, Supplier<ResourceVersion> version,
+                                                    Supplier<T> body) {
+        return readWrite.execute(status -> respond(request, version.get(), body));
+    }
+
+    private <T> ResponseEntity<T> respond(WebRequest request, ResourceVersion version, Supplier<T> body) {
+        // Authenticated responses may only be revalidated, never reused by shared caches
+        CacheControl cacheControl = request.getUserPrincipal() == null
+                ? anonymousCacheControl
+                : CacheControl.noCache().cachePrivate();
+        boolean hasLastModified = version.lastModified() > 0;
+        // checkNotModified has already written the validators on a 304
+        boolean notModified = hasLastModified
+                ? request.checkNotModified(version.etag(), version.lastModified())
+                : request.checkNotModified(version.etag());
+        if (notModified) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(version.etag());
+        if (hasLastModified) {
+            ok.lastModified(version.lastModified());
+        }
+        return ok.cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(body.get());
+    }
+}
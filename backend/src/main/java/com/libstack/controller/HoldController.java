@@ -0,0 +1,55 @@
+package com.libstack.controller;
+
+import com.libstack.dto.HoldDTO;
+import com.libstack.service.HoldNotifier;
+import com.libstack.service.HoldService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/holds")
+public class HoldController {
+
+    private final HoldService holdService;
+    private final HoldNotifier holdNotifier;
+    private final AuthenticatedUserResolver userResolver;
+
+    public HoldController(HoldService holdService, HoldNotifier holdNotifier, AuthenticatedUserResolver userResolver) {
+        this.holdService = holdService;
+        this.holdNotifier = holdNotifier;
+        this.userResolver = userResolver;
+    }
+
+    @PostMapping("/book/{bookId}")
+    public ResponseEntity<HoldDTO> placeHold(@PathVariable UUID bookId, Authentication authentication) {
+        UUID userId = userResolver.getUserId(authentication);
+        HoldDTO hold = holdService.placeHold(userId, bookId);
+        return ResponseEntity.ok(hold);
+    }
+
+    @GetMapping("/my-holds")
+    public ResponseEntity<List<HoldDTO>> getMyHolds(Authentication authentication) {
+        UUID userId = userResolver.getUserId(authentication);
+        List<HoldDTO> holds = holdService.getOpenHoldsByUserId(userId);
+        return ResponseEntity.ok(holds);
+    }
+
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<HoldDTO> cancelHold(@PathVariable UUID holdId, Authentication authentication) {
+        UUID userId = userResolver.getUserId(authentication);
+        HoldDTO hold = holdService.cancelHold(userId, holdId);
+        return ResponseEntity.ok(hold);
+    }
+
+    // hold-ready events for the caller; reconnect after app.holds.stream-timeout
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamHoldEvents(Authentication authentication) {
+        return holdNotifier.subscribe(userResolver.getUserId(authentication));
+    }
+}
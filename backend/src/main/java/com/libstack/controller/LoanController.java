@@ -1,30 +1,44 @@
 package com.libstack.controller;
 
+import com.libstack.dto.BatchBorrowRequest;
+import com.libstack.dto.BatchLoanResultDTO;
+import com.libstack.dto.BatchReturnRequest;
+import com.libstack.dto.BookDTO;
+import com.libstack.dto.CursorPage;
 import com.libstack.dto.LoanDTO;
 import com.libstack.service.LoanService;
+import com.libstack.service.RecommendationService;
+import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/loans")
 public class LoanController {
 
+    private static final int MAX_RECOMMENDATIONS = 20;
+
     private final LoanService loanService;
+    private final RecommendationService recommendationService;
+    private final AuthenticatedUserResolver userResolver;
 
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, RecommendationService recommendationService,
+                          AuthenticatedUserResolver userResolver) {
         this.loanService = loanService;
+        this.recommendationService = recommendationService;
+        this.userResolver = userResolver;
     }
 
     @GetMapping("/my-loans")
     public ResponseEntity<List<LoanDTO>> getMyActiveLoans(Authentication authentication) {
-        String userId = getUserIdFromAuthentication(authentication);
+        UUID userId = userResolver.getUserId(authentication);
         List<LoanDTO> loans = loanService.getActiveLoansByUserId(userId);
         return ResponseEntity.ok(loans);
     }
@@ -33,40 +47,63 @@ public class LoanController {
     public ResponseEntity<Page<LoanDTO>> getMyLoanHistory(
             Authentication authentication,
             @PageableDefault(size = 10) Pageable pageable) {
-        String userId = getUserIdFromAuthentication(authentication);
+        UUID userId = userResolver.getUserId(authentication);
         Page<LoanDTO> loans = loanService.getLoansByUserId(userId, pageable);
         return ResponseEntity.ok(loans);
     }
 
+    @GetMapping(value = "/my-history", params = "after")
+    public ResponseEntity<CursorPage<LoanDTO>> getMyLoanHistoryBefore(
+            Authentication authentication,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size) {
+        UUID userId = userResolver.getUserId(authentication);
+        CursorPage<LoanDTO> loans = loanService.getLoansByUserIdBefore(userId, after, size);
+        return ResponseEntity.ok(loans);
+    }
+
+    @GetMapping("/my-recommendations")
+    public ResponseEntity<List<BookDTO>> getMyRecommendations(
+            Authentication authentication,
+            @RequestParam(defaultValue = "10") int limit) {
+        UUID userId = userResolver.getUserId(authentication);
+        return ResponseEntity.ok(recommendationService.getRecommendations(userId,
+                Math.clamp(limit, 1, MAX_RECOMMENDATIONS)));
+    }
+
     @PostMapping("/borrow/{bookId}")
     public ResponseEntity<LoanDTO> borrowBook(
-            @PathVariable String bookId,
+            @PathVariable UUID bookId,
             Authentication authentication) {
-        String userId = getUserIdFromAuthentication(authentication);
+        UUID userId = userResolver.getUserId(authentication);
         LoanDTO loan = loanService.borrowBook(userId, bookId);
         return ResponseEntity.ok(loan);
     }
 
     @PostMapping("/return/{loanId}")
-    public ResponseEntity<LoanDTO> returnBook(@PathVariable String loanId) {
+    public ResponseEntity<LoanDTO> returnBook(@PathVariable UUID loanId) {
         LoanDTO loan = loanService.returnBook(loanId);
         return ResponseEntity.ok(loan);
     }
 
-    @GetMapping("/overdue")
-    public ResponseEntity<List<LoanDTO>> getOverdueLoans() {
-        List<LoanDTO> loans = loanService.getOverdueLoans();
-        return ResponseEntity.ok(loans);
+    @PostMapping("/borrow")
+    public ResponseEntity<BatchLoanResultDTO> borrowBooks(
+            @Valid @RequestBody BatchBorrowRequest request,
+            Authentication authentication) {
+        UUID userId = userResolver.getUserId(authentication);
+        BatchLoanResultDTO result = loanService.borrowBooks(userId, request.getBookIds());
+        return ResponseEntity.ok(result);
     }
 
-    private String getUserIdFromAuthentication(Authentication authentication) {
-        if (authentication instanceof OAuth2AuthenticationToken) {
-            OAuth2AuthenticationToken oauth2Token = (OAuth2AuthenticationToken) authentication;
-            String email = oauth2Token.getPrincipal().getAttribute("email");
-            // In a real application, you'd fetch this from your UserService
-            // For now, we'll return a placeholder
-            return email;
-        }
-        return authentication.getName();
+    @PostMapping("/return")
+    public ResponseEntity<BatchLoanResultDTO> returnBooks(@Valid @RequestBody BatchReturnRequest request) {
+        BatchLoanResultDTO result = loanService.returnBooks(request.getLoanIds());
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/overdue")
+    public ResponseEntity<Page<LoanDTO>> getOverdueLoans(@PageableDefault(size = 20) Pageable pageable) {
+        Page<LoanDTO> loans = loanService.getOverdueLoans(pageable);
+        return ResponseEntity.ok(loans);
     }
 }
@@ -0,0 +1,20 @@
+package com.libstack.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBorrowRequest {
+    
+    @NotEmpty(message = "At least one book id is required")
+    @Size(max = 100, message = "A batch can contain at most 100 books")
+    private List<UUID> bookIds;
+}
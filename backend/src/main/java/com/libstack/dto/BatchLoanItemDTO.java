@@ -0,0 +1,17 @@
+package com.libstack.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLoanItemDTO {
+    private UUID id;
+    private boolean success;
+    private LoanDTO loan;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.libstack.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLoanResultDTO {
+    private int succeeded;
+    private int failed;
+    private List<BatchLoanItemDTO> items;
+}
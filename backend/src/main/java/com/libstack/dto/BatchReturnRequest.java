@@ -0,0 +1,20 @@
+package com.libstack.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReturnRequest {
+    
+    @NotEmpty(message = "At least one loan id is required")
+    @Size(max = 100, message = "A batch can contain at most 100 loans")
+    private List<UUID> loanIds;
+}
@@ -4,11 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.UUID;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class BookDTO {
-    private String id;
+    private UUID id;
     private String title;
     private String author;
     private String isbn;
@@ -16,7 +18,7 @@ public class BookDTO {
     private String coverUrl;
     private Integer stockQuantity;
     private Integer availableStock;
-    private String categoryId;
+    private UUID categoryId;
     private String categoryName;
     private boolean available;
 }
@@ -0,0 +1,14 @@
+package com.libstack.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportErrorDTO {
+    private long row;
+    private String isbn;
+    private String message;
+}
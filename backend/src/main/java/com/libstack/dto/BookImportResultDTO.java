@@ -0,0 +1,23 @@
+package com.libstack.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResultDTO {
+    private String id;
+    private String status;
+    private long processed;
+    private long imported;
+    private long skipped;
+    private long failed;
+    private List<BookImportErrorDTO> errors;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
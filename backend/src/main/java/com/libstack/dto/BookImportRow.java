@@ -0,0 +1,26 @@
+package com.libstack.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a CSV or NDJSON catalog import. Fields are kept as text so that a bad
+ * value is reported against its row instead of aborting the whole stream.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({"title", "author", "isbn", "description", "coverUrl", "stockQuantity", "category"})
+public class BookImportRow {
+    private String title;
+    private String author;
+    private String isbn;
+    private String description;
+    private String coverUrl;
+    private String stockQuantity;
+    private String category;
+}
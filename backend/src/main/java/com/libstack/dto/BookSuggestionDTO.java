@@ -0,0 +1,17 @@
+package com.libstack.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSuggestionDTO {
+    private UUID id;
+    private String title;
+    private String author;
+    private String isbn;
+}
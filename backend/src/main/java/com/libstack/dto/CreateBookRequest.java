@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.UUID;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,5 +28,5 @@ public class CreateBookRequest {
     @Min(value = 0, message = "Stock quantity must be non-negative")
     private Integer stockQuantity;
     
-    private String categoryId;
+    private UUID categoryId;
 }
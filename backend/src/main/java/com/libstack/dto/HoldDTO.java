@@ -0,0 +1,24 @@
+package com.libstack.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldDTO {
+    private UUID id;
+    private UUID userId;
+    private UUID bookId;
+    private String bookTitle;
+    private String status;
+    // 1 for the head of the queue; null once the hold is no longer waiting
+    private Integer position;
+    private LocalDateTime createdAt;
+    private LocalDateTime readyAt;
+    private LocalDateTime expiresAt;
+}
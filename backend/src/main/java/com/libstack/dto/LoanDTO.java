@@ -6,15 +6,16 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class LoanDTO {
-    private String id;
-    private String userId;
+    private UUID id;
+    private UUID userId;
     private String userName;
-    private String bookId;
+    private UUID bookId;
     private String bookTitle;
     private String bookAuthor;
     private String bookCoverUrl;
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.UUID;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,5 +25,5 @@ public class UpdateBookRequest {
     @Min(value = 0, message = "Stock quantity must be non-negative")
     private Integer stockQuantity;
     
-    private String categoryId;
+    private UUID categoryId;
 }
@@ -0,0 +1,51 @@
+package com.libstack.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "holds")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Hold {
+
+    @Id
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    // WAITING in the queue, READY with a copy set aside, then FULFILLED, EXPIRED or CANCELLED
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime readyAt;
+
+    private LocalDateTime expiresAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        status = "WAITING";
+    }
+
+    public boolean isWaiting() {
+        return status.equals("WAITING");
+    }
+}
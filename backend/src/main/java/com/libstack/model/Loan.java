@@ -4,9 +4,11 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(name = "loans")
@@ -16,8 +18,8 @@ import java.time.LocalDateTime;
 public class Loan {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -47,8 +49,9 @@ public class Loan {
         status = "ACTIVE";
     }
     
+    // Maintained by OverdueLoanSweeper, which moves past-due ACTIVE loans to OVERDUE
     public boolean isOverdue() {
-        return status.equals("ACTIVE") && LocalDate.now().isAfter(dueDate);
+        return status.equals("OVERDUE");
     }
     
     public boolean isReturned() {
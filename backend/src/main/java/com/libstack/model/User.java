@@ -4,8 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(name = "users")
@@ -15,8 +17,8 @@ import java.time.LocalDateTime;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    private UUID id;
 
     @Column(unique = true, nullable = false)
     private String email;
@@ -32,6 +34,14 @@ public class User {
 
     private String role;
 
+    // Written only by UserRepository's guarded updates, so saving a loaded user never overwrites it
+    @Column(insertable = false, updatable = false)
+    private int activeLoanCount;
+
+    // Bumped by UserRepository.incrementTokenVersion to revoke the user's bearer tokens
+    @Column(insertable = false, updatable = false)
+    private int tokenVersion;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
@@ -0,0 +1,33 @@
+package com.libstack.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDv7 (RFC 9562): 48 bits of Unix milliseconds, a 12-bit counter and 62 random bits.
+ * The counter keeps ids from this JVM strictly increasing, even within one millisecond, so new keys
+ * land at the right edge of the primary key index instead of on random pages. That keeps inserts into
+ * loans cheap and the index compact.
+ */
+public class UuidV7Generator implements UuidValueGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Milliseconds shifted left by 12 plus the counter; a full counter borrows from the next millisecond
+    private static final AtomicLong LAST = new AtomicLong();
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return next();
+    }
+
+    public static UUID next() {
+        long stamp = LAST.updateAndGet(last -> Math.max(System.currentTimeMillis() << 12, last + 1));
+        long msb = (stamp >>> 12) << 16 | 0x7000L | stamp & 0xfff;
+        long lsb = RANDOM.nextLong() & 0x3fffffffffffffffL | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
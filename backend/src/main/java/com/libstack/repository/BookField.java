@@ -0,0 +1,70 @@
+package com.libstack.repository;
+
+import com.libstack.model.Book;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Book properties a client can request with {@code fields=}, each selected as a single column.
+ * Only {@link #CATEGORY_NAME} needs the categories join; the category id is read from the foreign key.
+ */
+public enum BookField {
+    ID("id"),
+    TITLE("title"),
+    AUTHOR("author"),
+    ISBN("isbn"),
+    DESCRIPTION("description"),
+    COVER_URL("coverUrl"),
+    STOCK_QUANTITY("stockQuantity"),
+    AVAILABLE_STOCK("availableStock"),
+    AVAILABLE("available"),
+    CATEGORY_ID("categoryId"),
+    CATEGORY_NAME("categoryName");
+
+    private final String property;
+
+    BookField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    Expression<?> select(Root<Book> root) {
+        return switch (this) {
+            case STOCK_QUANTITY, AVAILABLE_STOCK, AVAILABLE -> root.get("stockQuantity");
+            case CATEGORY_ID -> root.get("category").get("id");
+            case CATEGORY_NAME -> root.join("category", JoinType.LEFT).get("name");
+            default -> root.get(property);
+        };
+    }
+
+    Object value(Object selected) {
+        return this == AVAILABLE ? selected != null && (Integer) selected > 0 : selected;
+    }
+
+    public static BookField fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Unknown book field: " + property));
+    }
+
+    // The id is always returned so clients can link to the full book
+    public static Set<BookField> parse(String fields) {
+        Set<BookField> parsed = new LinkedHashSet<>();
+        parsed.add(ID);
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(property -> !property.isEmpty())
+                .map(BookField::fromProperty)
+                .forEach(parsed::add);
+        return parsed;
+    }
+}
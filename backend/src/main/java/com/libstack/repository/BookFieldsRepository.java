@@ -0,0 +1,16 @@
+package com.libstack.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface BookFieldsRepository {
+
+    /**
+     * Pages over the books matching {@code filter}, selecting only the requested columns. Each row maps
+     * property names to values in the order of {@code fields}.
+     */
+    Page<Map<String, Object>> findFields(Set<BookField> fields, BookFilter filter, Pageable pageable);
+}
@@ -0,0 +1,65 @@
+package com.libstack.repository;
+
+import com.libstack.model.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class BookFieldsRepositoryImpl implements BookFieldsRepository {
+
+    private final EntityManager entityManager;
+
+    BookFieldsRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Map<String, Object>> findFields(Set<BookField> fields, BookFilter filter, Pageable pageable) {
+        Specification<Book> specification = BookSpecifications.matching(filter);
+        Pageable page = BookSpecifications.stablePage(filter, pageable);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        List<BookField> columns = List.copyOf(fields);
+        query.multiselect(columns.stream().<Selection<?>>map(field -> field.select(root)).toList());
+        query.where(specification.toPredicate(root, query, cb));
+        if (page.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(page.getSort(), root, cb));
+        }
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query)
+                .setFirstResult((int) page.getOffset())
+                .setMaxResults(page.getPageSize());
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                row.put(columns.get(i).getProperty(), columns.get(i).value(tuple.get(i)));
+            }
+            rows.add(row);
+        }
+
+        return PageableExecutionUtils.getPage(rows, page, () -> {
+            CriteriaQuery<Long> count = cb.createQuery(Long.class);
+            Root<Book> countRoot = count.from(Book.class);
+            count.select(cb.count(countRoot)).where(specification.toPredicate(countRoot, count, cb));
+            return entityManager.createQuery(count).getSingleResult();
+        });
+    }
+}
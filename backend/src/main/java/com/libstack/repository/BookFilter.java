@@ -0,0 +1,26 @@
+package com.libstack.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Catalog criteria. Every non-null component narrows the result, and they combine with AND, see
+ * {@link BookSpecifications#matching(BookFilter)}. The added dates are inclusive.
+ */
+public record BookFilter(String search, UUID categoryId, Boolean available, String author,
+                         LocalDate addedFrom, LocalDate addedTo) {
+
+    public static final BookFilter NONE = new BookFilter(null, null, null, null, null, null);
+
+    public static BookFilter search(String search) {
+        return new BookFilter(search, null, null, null, null, null);
+    }
+
+    public boolean isEmpty() {
+        return equals(NONE);
+    }
+
+    public boolean hasSearch() {
+        return search != null && !search.isBlank();
+    }
+}
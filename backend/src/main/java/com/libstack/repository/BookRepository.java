@@ -1,32 +1,45 @@
 package com.libstack.repository;
 
 import com.libstack.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, String> {
+public interface BookRepository extends JpaRepository<Book, UUID>, JpaSpecificationExecutor<Book>,
+        BookFieldsRepository, BookStockRepository {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Book> findByIsbn(String isbn);
+
+    // Bumped by triggers on every write that changes books, see db/migration V8 and V10
+    @Query(value = "SELECT CAST(SUM(version) AS bigint) FROM catalog_versions WHERE table_name = 'books'",
+           nativeQuery = true)
+    long findCatalogVersion();
     
-    @Query("SELECT b FROM Book b WHERE " +
-           "LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(b.isbn) LIKE LOWER(CONCAT('%', :query, '%'))")
-    Page<Book> searchBooks(@Param("query") String query, Pageable pageable);
+    Page<Book> findByStockQuantityGreaterThan(int quantity, Pageable pageable);
     
-    Page<Book> findByCategoryId(String categoryId, Pageable pageable);
+    List<Book> findByTitleContainingIgnoreCase(String title);
     
-    Page<Book> findByStockQuantityGreaterThan(int quantity, Pageable pageable);
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
     
-    @Query("SELECT b FROM Book b WHERE b.stockQuantity > 0")
-    Page<Book> findAvailableBooks(Pageable pageable);
+    // Keyset pagination over (title, id), backed by idx_books_title_id
+    @Query("SELECT b FROM Book b ORDER BY b.title, b.id")
+    List<Book> findFirstByTitleKeyset(Limit limit);
     
-    List<Book> findByTitleContainingIgnoreCase(String title);
+    @Query("SELECT b FROM Book b WHERE (b.title, b.id) > (:title, :id) ORDER BY b.title, b.id")
+    List<Book> findByTitleKeysetAfter(@Param("title") String title, @Param("id") UUID id, Limit limit);
 }
@@ -0,0 +1,137 @@
+package com.libstack.repository;
+
+import com.libstack.config.CatalogSearchFunctions;
+import com.libstack.model.Book;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The catalog filter engine: turns a {@link BookFilter} into one SQL predicate, each criterion backed
+ * by an index (search_vector GIN, category_id, lower(author), created_at).
+ */
+public final class BookSpecifications {
+
+    private static final Pattern DIGIT_HYPHEN = Pattern.compile("(?<=\\d)-(?=\\d)");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern LIKE_SPECIAL = Pattern.compile("[\\\\%_]");
+    private static final char LIKE_ESCAPE = '\\';
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> matching(BookFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.hasSearch()) {
+                String tsQuery = toPrefixTsQuery(filter.search());
+                if (tsQuery.isEmpty()) {
+                    // Nothing tokenizable (e.g. only punctuation), fall back to the pattern scan. Such input is
+                    // exactly where % and _ turn up, so they are matched literally
+                    String pattern = "%" + escapeLike(filter.search().toLowerCase(Locale.ROOT)) + "%";
+                    predicates.add(cb.or(
+                            cb.like(cb.lower(root.get("title")), pattern, LIKE_ESCAPE),
+                            cb.like(cb.lower(root.get("author")), pattern, LIKE_ESCAPE),
+                            cb.like(cb.lower(root.get("isbn")), pattern, LIKE_ESCAPE)));
+                } else {
+                    Expression<String> vector = cb.function(CatalogSearchFunctions.SEARCH_VECTOR, String.class,
+                            root.get("id"));
+                    // Bound rather than inlined, so every search shares one statement per filter combination
+                    Expression<String> terms = ((HibernateCriteriaBuilder) cb).value(tsQuery);
+                    predicates.add(cb.isTrue(cb.function(CatalogSearchFunctions.FTS_MATCH, Boolean.class,
+                            vector, terms)));
+                    if (!isCountQuery(query)) {
+                        query.orderBy(
+                                cb.desc(cb.function(CatalogSearchFunctions.FTS_RANK, Double.class, vector, terms)),
+                                cb.asc(root.get("id")));
+                    }
+                }
+            }
+            if (filter.categoryId() != null) {
+                predicates.add(cb.equal(root.get("category").get("id"), filter.categoryId()));
+            }
+            if (filter.available() != null) {
+                Expression<Integer> stock = root.get("stockQuantity");
+                predicates.add(filter.available() ? cb.gt(stock, 0) : cb.le(stock, 0));
+            }
+            if (filter.author() != null) {
+                predicates.add(cb.equal(cb.lower(root.get("author")), filter.author().toLowerCase(Locale.ROOT)));
+            }
+            if (filter.addedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.addedFrom().atStartOfDay()));
+            }
+            if (filter.addedTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.addedTo().plusDays(1).atStartOfDay()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Rows after the keyset position (title, id) in title order. Spelled out rather than as a row comparison,
+     * which criteria queries cannot express; the leading {@code title >=} still bounds the idx_books_title_id
+     * range.
+     */
+    public static Specification<Book> titleAfter(String title, UUID id) {
+        return (root, query, cb) -> {
+            Expression<String> titlePath = root.get("title");
+            Expression<UUID> idPath = root.get("id");
+            return cb.and(
+                    cb.greaterThanOrEqualTo(titlePath, title),
+                    cb.or(cb.greaterThan(titlePath, title), cb.greaterThan(idPath, id)));
+        };
+    }
+
+    /**
+     * Ranked searches keep the relevance order set by {@link #matching(BookFilter)}, so any client sort is
+     * dropped. Everything else is sorted as requested, or by title, with id appended as the tie-breaker
+     * so that pages never overlap or skip rows.
+     */
+    public static Pageable stablePage(BookFilter filter, Pageable pageable) {
+        if (isRanked(filter)) {
+            return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("title");
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by("id"));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    private static String toPrefixTsQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        // Hyphenated ISBNs are indexed without hyphens, so normalize them the same way here
+        String normalized = DIGIT_HYPHEN.matcher(query.toLowerCase(Locale.ROOT)).replaceAll("");
+        return Arrays.stream(NON_WORD.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    private static String escapeLike(String value) {
+        return LIKE_SPECIAL.matcher(value).replaceAll("\\\\$0");
+    }
+
+    private static boolean isRanked(BookFilter filter) {
+        return filter.hasSearch() && !toPrefixTsQuery(filter.search()).isEmpty();
+    }
+
+    private static boolean isCountQuery(CriteriaQuery<?> query) {
+        return Long.class.equals(query.getResultType()) || long.class.equals(query.getResultType());
+    }
+}
@@ -0,0 +1,11 @@
+package com.libstack.repository;
+
+import java.util.UUID;
+
+public interface BookStockRepository {
+
+    /** Reserves one copy in a single statement; returns 0 when the book is missing or out of stock. */
+    int decrementStock(UUID id);
+
+    int incrementStock(UUID id);
+}
@@ -0,0 +1,64 @@
+package com.libstack.repository;
+
+import com.libstack.model.Book;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Stock updates that run on every borrow, return and hold sweep. A JPQL bulk update would make Hibernate
+ * evict the whole books region and every cached query over books each time; these are native statements
+ * with an empty query space instead, and only the updated book leaves the second-level cache.
+ */
+class BookStockRepositoryImpl implements BookStockRepository {
+
+    private static final String DECREMENT_SQL = "UPDATE books SET stock_quantity = stock_quantity - 1, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = :id AND stock_quantity > 0";
+    private static final String INCREMENT_SQL = "UPDATE books SET stock_quantity = stock_quantity + 1, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = :id";
+
+    private final EntityManager entityManager;
+
+    BookStockRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int decrementStock(UUID id) {
+        return update(DECREMENT_SQL, id);
+    }
+
+    @Override
+    public int incrementStock(UUID id) {
+        return update(INCREMENT_SQL, id);
+    }
+
+    private int update(String sql, UUID id) {
+        int updated = entityManager.createNativeQuery(sql)
+                .setParameter("id", id)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("")
+                .executeUpdate();
+        if (updated > 0) {
+            evict(id);
+        }
+        return updated;
+    }
+
+    // Again once the transaction ends: a reader may have cached the old row before the commit made the new
+    // one visible
+    private void evict(UUID id) {
+        entityManager.getEntityManagerFactory().getCache().evict(Book.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entityManager.getEntityManagerFactory().getCache().evict(Book.class, id);
+                }
+            });
+        }
+    }
+}
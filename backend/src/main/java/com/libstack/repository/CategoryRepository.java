@@ -1,13 +1,26 @@
 package com.libstack.repository;
 
 import com.libstack.model.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, String> {
+public interface CategoryRepository extends JpaRepository<Category, UUID> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByName(String name);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByName(String name);
+
+    // Bumped by triggers on every write that changes categories, see db/migration V8 and V10
+    @Query(value = "SELECT CAST(SUM(version) AS bigint) FROM catalog_versions WHERE table_name = 'categories'",
+           nativeQuery = true)
+    long findCatalogVersion();
 }
@@ -0,0 +1,74 @@
+package com.libstack.repository;
+
+import com.libstack.model.Hold;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, UUID> {
+
+    // Head of the book's queue from idx_holds_book_queue. SKIP LOCKED lets concurrent returns of the
+    // same book each take a different holder
+    @Query(value = "SELECT * FROM holds WHERE book_id = :bookId AND status = 'WAITING' " +
+                   "ORDER BY created_at, id LIMIT 1 FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<Hold> findNextWaiting(@Param("bookId") UUID bookId);
+
+    @Query("SELECT COUNT(h) FROM Hold h WHERE h.book.id = :bookId AND h.status = 'WAITING' " +
+           "AND (h.createdAt, h.id) < (:createdAt, :id)")
+    long countAhead(@Param("bookId") UUID bookId, @Param("createdAt") LocalDateTime createdAt,
+                    @Param("id") UUID id);
+
+    // Numbers each queue the user waits in along idx_holds_book_queue, in one statement for the whole list
+    @Query(value = "SELECT q.id AS id, q.position AS position FROM (" +
+                   "SELECT h.id, h.user_id, ROW_NUMBER() OVER (PARTITION BY h.book_id ORDER BY h.created_at, h.id) " +
+                   "AS position FROM holds h WHERE h.status = 'WAITING' AND h.book_id IN " +
+                   "(SELECT w.book_id FROM holds w WHERE w.user_id = :userId AND w.status = 'WAITING')) q " +
+                   "WHERE q.user_id = :userId",
+           nativeQuery = true)
+    List<QueuePosition> findQueuePositions(@Param("userId") UUID userId);
+
+    @EntityGraph(attributePaths = {"book"})
+    @Query("SELECT h FROM Hold h WHERE h.user.id = :userId AND h.status IN ('WAITING', 'READY') " +
+           "ORDER BY h.createdAt")
+    List<Hold> findOpenHoldsByUserId(@Param("userId") UUID userId);
+
+    // Collects the copy set aside for this user; returns 0 when there is none or its pickup window has
+    // passed, in which case the expiry sweep hands the copy on
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = 'FULFILLED' " +
+           "WHERE h.user.id = :userId AND h.book.id = :bookId AND h.status = 'READY' AND h.expiresAt > :now")
+    int fulfillReady(@Param("userId") UUID userId, @Param("bookId") UUID bookId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = 'CANCELLED' WHERE h.id = :id AND h.status = :status")
+    int cancel(@Param("id") UUID id, @Param("status") String status);
+
+    @Query(value = "SELECT * FROM holds WHERE status = 'READY' AND expires_at < :now FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Hold> findExpiredReady(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = 'EXPIRED' WHERE h.id IN :ids")
+    int markExpired(@Param("ids") Collection<UUID> ids);
+
+    // Books that have copies on the shelf while people wait, after a restock or a return that raced a new hold
+    @Query("SELECT DISTINCT h.book.id FROM Hold h WHERE h.status = 'WAITING' AND h.book.stockQuantity > 0")
+    List<UUID> findBooksInStockWithWaitingHolds();
+
+    interface QueuePosition {
+        UUID getId();
+
+        long getPosition();
+    }
+}
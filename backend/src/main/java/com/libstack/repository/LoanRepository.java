@@ -1,36 +1,87 @@
 package com.libstack.repository;
 
 import com.libstack.model.Loan;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface LoanRepository extends JpaRepository<Loan, String> {
+public interface LoanRepository extends JpaRepository<Loan, UUID> {
     
-    Page<Loan> findByUserId(String userId, Pageable pageable);
+    // Loan reads that are mapped to LoanDTO fetch user and book in the same select
+    @EntityGraph(attributePaths = {"user", "book"})
+    Page<Loan> findByUserId(UUID userId, Pageable pageable);
     
-    List<Loan> findByUserIdAndStatus(String userId, String status);
+    List<Loan> findByUserIdAndStatus(UUID userId, String status);
     
-    @Query("SELECT l FROM Loan l WHERE l.user.id = :userId AND l.status = 'ACTIVE'")
-    List<Loan> findActiveLoansByUserId(@Param("userId") String userId);
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT l FROM Loan l WHERE l.user.id = :userId AND l.status IN ('ACTIVE', 'OVERDUE')")
+    List<Loan> findActiveLoansByUserId(@Param("userId") UUID userId);
     
-    @Query("SELECT COUNT(l) FROM Loan l WHERE l.user.id = :userId AND l.status = 'ACTIVE'")
-    long countActiveLoansByUserId(@Param("userId") String userId);
+    @Query("SELECT l.book.id FROM Loan l WHERE l.user.id = :userId AND l.status IN ('ACTIVE', 'OVERDUE')")
+    List<UUID> findActiveBookIdsByUserId(@Param("userId") UUID userId);
     
-    boolean existsByUserIdAndBookIdAndStatus(String userId, String bookId, String status);
+    @Query("SELECT l FROM Loan l WHERE l.book.id = :bookId AND l.status IN ('ACTIVE', 'OVERDUE')")
+    List<Loan> findActiveLoansByBookId(@Param("bookId") UUID bookId);
     
-    @Query("SELECT l FROM Loan l WHERE l.book.id = :bookId AND l.status = 'ACTIVE'")
-    List<Loan> findActiveLoansByBookId(@Param("bookId") String bookId);
+    // Served by the partial index idx_loans_overdue_due_date, see db/migration
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query(value = "SELECT l FROM Loan l WHERE l.status = 'OVERDUE' ORDER BY l.dueDate, l.id",
+           countQuery = "SELECT COUNT(l) FROM Loan l WHERE l.status = 'OVERDUE'")
+    Page<Loan> findOverdueLoans(Pageable pageable);
     
-    @Query("SELECT l FROM Loan l WHERE l.status = 'ACTIVE' AND l.dueDate < CURRENT_DATE")
-    List<Loan> findOverdueLoans();
+    // Set-based sweep served by the partial index idx_loans_active_due_date
+    @Modifying
+    @Query("UPDATE Loan l SET l.status = 'OVERDUE' WHERE l.status = 'ACTIVE' AND l.dueDate < :today")
+    int markOverdue(@Param("today") LocalDate today);
     
+    @EntityGraph(attributePaths = {"user", "book"})
     Page<Loan> findAll(Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"user", "book"})
+    Optional<Loan> findWithUserAndBookById(UUID id);
+    
+    @EntityGraph(attributePaths = {"user", "book"})
+    List<Loan> findAllWithUserAndBookByIdIn(Collection<UUID> ids);
+    
+    // Keyset pagination, newest first, over (borrowed_at, id) and (user_id, borrowed_at, id)
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT l FROM Loan l ORDER BY l.borrowedAt DESC, l.id DESC")
+    List<Loan> findFirstByBorrowedAtKeyset(Limit limit);
+    
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT l FROM Loan l WHERE (l.borrowedAt, l.id) < (:borrowedAt, :id) " +
+           "ORDER BY l.borrowedAt DESC, l.id DESC")
+    List<Loan> findByBorrowedAtKeysetBefore(@Param("borrowedAt") LocalDateTime borrowedAt, @Param("id") UUID id,
+                                            Limit limit);
+    
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT l FROM Loan l WHERE l.user.id = :userId ORDER BY l.borrowedAt DESC, l.id DESC")
+    List<Loan> findFirstByUserIdBorrowedAtKeyset(@Param("userId") UUID userId, Limit limit);
+    
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT l FROM Loan l WHERE l.user.id = :userId AND (l.borrowedAt, l.id) < (:borrowedAt, :id) " +
+           "ORDER BY l.borrowedAt DESC, l.id DESC")
+    List<Loan> findByUserIdBorrowedAtKeysetBefore(@Param("userId") UUID userId,
+                                                  @Param("borrowedAt") LocalDateTime borrowedAt,
+                                                  @Param("id") UUID id, Limit limit);
+    
+    // Returns 0 when the loan is missing or was already returned by a concurrent request
+    @Modifying
+    @Query("UPDATE Loan l SET l.status = 'RETURNED', l.returnedAt = :returnedAt " +
+           "WHERE l.id = :id AND l.status IN ('ACTIVE', 'OVERDUE')")
+    int markReturned(@Param("id") UUID id, @Param("returnedAt") LocalDateTime returnedAt);
 }
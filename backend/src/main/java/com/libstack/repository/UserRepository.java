@@ -2,13 +2,54 @@ package com.libstack.repository;
 
 import com.libstack.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     Optional<User> findByProviderAndProviderId(String provider, String providerId);
     boolean existsByEmail(String email);
+
+    // Takes one of the user's loan slots; returns 0 when the user is missing or already at the limit
+    @Modifying
+    @Query("UPDATE User u SET u.activeLoanCount = u.activeLoanCount + 1 " +
+           "WHERE u.id = :id AND u.activeLoanCount < :limit")
+    int reserveLoanSlot(@Param("id") UUID id, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE User u SET u.activeLoanCount = u.activeLoanCount - 1 " +
+           "WHERE u.id = :id AND u.activeLoanCount > 0")
+    int releaseLoanSlot(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") UUID id);
+
+    // Read-write so that it runs on the primary: a lagging replica would still return the version a
+    // revocation just replaced
+    @Transactional
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersion(@Param("id") UUID id);
+
+    @Query("SELECT u.id FROM User u WHERE u.activeLoanCount <> " +
+           "(SELECT COUNT(l) FROM Loan l WHERE l.user.id = u.id AND l.status IN ('ACTIVE', 'OVERDUE'))")
+    List<UUID> findIdsWithDriftedLoanCount();
+
+    // Blocks until in-flight borrows and returns for this user commit, so a recount that follows sees them
+    @Query(value = "SELECT id FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<UUID> lockById(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.activeLoanCount = " +
+           "(SELECT COUNT(l) FROM Loan l WHERE l.user.id = u.id AND l.status IN ('ACTIVE', 'OVERDUE')) " +
+           "WHERE u.id = :id")
+    int recountLoans(@Param("id") UUID id);
 }
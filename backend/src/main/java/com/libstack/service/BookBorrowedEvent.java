@@ -0,0 +1,7 @@
+package com.libstack.service;
+
+import java.util.UUID;
+
+// Published by LoanService for every new loan; applied to the recommendation model once the loan commits
+public record BookBorrowedEvent(UUID userId, UUID bookId) {
+}
@@ -0,0 +1,11 @@
+package com.libstack.service;
+
+import java.util.UUID;
+
+// Published by BookService on every catalog write; title, author and isbn are null for a deleted book
+public record BookChangedEvent(UUID bookId, String title, String author, String isbn, boolean deleted) {
+
+    static BookChangedEvent deleted(UUID bookId) {
+        return new BookChangedEvent(bookId, null, null, null, true);
+    }
+}
@@ -0,0 +1,284 @@
+package com.libstack.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.libstack.config.MetricsConfig;
+import com.libstack.dto.BookImportErrorDTO;
+import com.libstack.dto.BookImportResultDTO;
+import com.libstack.dto.BookImportRow;
+import com.libstack.model.Category;
+import com.libstack.model.UuidV7Generator;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a catalog upload row by row and writes it in JDBC batches, one transaction per
+ * batch, so neither the file nor the persistence context grows with the upload size.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_COLUMN_LENGTH = 255;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TRACKED_IMPORTS = 20;
+    private static final String INSERT_BOOK =
+            "INSERT INTO books (id, title, author, isbn, description, cover_url, stock_quantity, category_id, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final Map<String, ImportJob> imports = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImportJob> eldest) {
+            return size() > MAX_TRACKED_IMPORTS;
+        }
+    });
+
+    public BookImportService(BookRepository bookRepository, CategoryRepository categoryRepository,
+                             JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper,
+                             BookSuggestIndex bookSuggestIndex) {
+        this.bookRepository = bookRepository;
+        this.categoryRepository = categoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.bookSuggestIndex = bookSuggestIndex;
+    }
+
+    public BookImportResultDTO importBooks(InputStream input, DataFormat format) {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        imports.put(job.id, job);
+
+        Map<String, UUID> categoryIds = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(category -> normalize(category.getName()), Category::getId, (first, second) -> first));
+        List<PendingBook> batch = new ArrayList<>(BATCH_SIZE);
+
+        try (MappingIterator<BookImportRow> rows = openReader(input, format)) {
+            while (rows.hasNextValue()) {
+                BookImportRow row = rows.nextValue();
+                long rowNumber = job.processed.incrementAndGet();
+                PendingBook book = toPendingBook(row, rowNumber, categoryIds, job);
+                if (book != null) {
+                    batch.add(book);
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    writeBatch(batch, job);
+                    batch.clear();
+                }
+            }
+            writeBatch(batch, job);
+            job.finish("COMPLETED");
+        } catch (IOException | RuntimeException ex) {
+            // Batches written before the failure stay committed; the report says where it stopped
+            job.abort("Import aborted after row " + job.processed.get() + ": " + ex.getMessage());
+        }
+        // Imported rows bypass BookService, so they reach typeahead through a rebuild rather than the overlay
+        if (job.imported.get() > 0) {
+            bookSuggestIndex.rebuildInBackground();
+        }
+
+        log.info("Book import {} {}: processed={} imported={} skipped={} failed={}", job.id, job.status,
+                job.processed.get(), job.imported.get(), job.skipped.get(), job.failed.get());
+        return job.toDTO();
+    }
+
+    public List<BookImportResultDTO> getRecentImports() {
+        synchronized (imports) {
+            return imports.values().stream().map(ImportJob::toDTO).collect(Collectors.toList());
+        }
+    }
+
+    public BookImportResultDTO getImport(String id) {
+        ImportJob job = imports.get(id);
+        if (job == null) {
+            throw new RuntimeException("Import not found with id: " + id);
+        }
+        return job.toDTO();
+    }
+
+    private MappingIterator<BookImportRow> openReader(InputStream input, DataFormat format) throws IOException {
+        if (format == DataFormat.CSV) {
+            return csvMapper.readerFor(BookImportRow.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(input);
+        }
+        return objectMapper.readerFor(BookImportRow.class).readValues(input);
+    }
+
+    private PendingBook toPendingBook(BookImportRow row, long rowNumber, Map<String, UUID> categoryIds,
+                                      ImportJob job) {
+        String title = trimToNull(row.getTitle());
+        String author = trimToNull(row.getAuthor());
+        String isbn = trimToNull(row.getIsbn());
+        String description = trimToNull(row.getDescription());
+        String coverUrl = trimToNull(row.getCoverUrl());
+        String category = trimToNull(row.getCategory());
+
+        if (title == null || author == null) {
+            job.rowFailed(rowNumber, isbn, "Title and author are required");
+            return null;
+        }
+        if (tooLong(title) || tooLong(author) || tooLong(isbn) || tooLong(description) || tooLong(coverUrl)) {
+            job.rowFailed(rowNumber, isbn, "Values must be at most " + MAX_COLUMN_LENGTH + " characters");
+            return null;
+        }
+
+        int stockQuantity;
+        try {
+            String stock = trimToNull(row.getStockQuantity());
+            stockQuantity = stock != null ? Integer.parseInt(stock) : 0;
+        } catch (NumberFormatException ex) {
+            job.rowFailed(rowNumber, isbn, "Stock quantity must be a whole number");
+            return null;
+        }
+        if (stockQuantity < 0) {
+            job.rowFailed(rowNumber, isbn, "Stock quantity must be non-negative");
+            return null;
+        }
+
+        UUID categoryId = null;
+        if (category != null) {
+            categoryId = categoryIds.get(normalize(category));
+            if (categoryId == null) {
+                job.rowFailed(rowNumber, isbn, "Category not found with name: " + category);
+                return null;
+            }
+        }
+
+        return new PendingBook(isbn, new Object[]{
+                UuidV7Generator.next(), title, author, isbn, description, coverUrl, stockQuantity, categoryId,
+                null, null
+        });
+    }
+
+    private void writeBatch(List<PendingBook> batch, ImportJob job) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Integer inserted = transactionTemplate.execute(status -> {
+            Set<String> isbns = batch.stream()
+                    .map(PendingBook::isbn)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            // Same uniqueness rule as BookRepository.findByIsbn: skip titles already in the catalog
+            Set<String> taken = isbns.isEmpty() ? new HashSet<>() : new HashSet<>(bookRepository.findExistingIsbns(isbns));
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (PendingBook book : batch) {
+                if (book.isbn() != null && !taken.add(book.isbn())) {
+                    continue;
+                }
+                book.params()[8] = now;
+                book.params()[9] = now;
+                rows.add(book.params());
+            }
+            jdbcTemplate.batchUpdate(INSERT_BOOK, rows);
+            return rows.size();
+        });
+        // JDBC inserts bypass Hibernate's query-cache invalidation, so a cached "no book with this ISBN" could go stale
+        entityManagerFactory.getCache().unwrap(Cache.class).evictDefaultQueryRegion();
+
+        int written = inserted != null ? inserted : 0;
+        job.imported.addAndGet(written);
+        job.skipped.addAndGet(batch.size() - written);
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_COLUMN_LENGTH;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record PendingBook(String isbn, Object[] params) {
+    }
+
+    private static class ImportJob {
+        private final String id;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<BookImportErrorDTO> errors = new CopyOnWriteArrayList<>();
+        private volatile String status = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+
+        ImportJob(String id) {
+            this.id = id;
+        }
+
+        void rowFailed(long row, String isbn, String message) {
+            failed.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BookImportErrorDTO(row, isbn, message));
+            }
+        }
+
+        void abort(String message) {
+            errors.add(new BookImportErrorDTO(processed.get(), null, message));
+            finish("FAILED");
+        }
+
+        void finish(String finalStatus) {
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        BookImportResultDTO toDTO() {
+            return new BookImportResultDTO(id, status, processed.get(), imported.get(), skipped.get(), failed.get(),
+                    new ArrayList<>(errors), startedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.libstack.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable typeahead index over the normalized title, author and ISBN of every book. Titles and authors are
+ * also keyed from each of their later words, so a query matches the start of any word. The keys are sorted
+ * and front-coded in blocks of 16, each key storing only the bytes it does not share with the one before,
+ * and the display text of all books lives in a single UTF-8 array, so a large catalog costs a handful of
+ * primitive arrays rather than millions of objects. An open-addressing table maps ids back to book ordinals
+ * for {@link #popularityOf}. A prefix selects a contiguous run of keys; a segment
+ * tree holding the most popular key of every span returns the top K of that run in O(K log n).
+ */
+final class BookPrefixIndex {
+
+    static final BookPrefixIndex EMPTY = new Builder().build();
+
+    private static final int BLOCK_SIZE = 16;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ISBN_QUERY = Pattern.compile("[0-9][0-9xX -]*");
+
+    // Per book ordinal: id as two longs, title/author/isbn offsets into text, popularity
+    private final long[] ids;
+    private final byte[] text;
+    private final int[] textOffsets;
+    private final int[] popularity;
+    // Linear-probing table at most half full, indexed by a hash of the id: book ordinal + 1, 0 when empty
+    private final int[] idSlots;
+
+    // Per key, in sorted order: front-coded bytes, owning book ordinal
+    private final int keyCount;
+    private final int maxKeyLength;
+    private final byte[] keyData;
+    private final int[] blockOffsets;
+    private final int[] keyBooks;
+
+    // Heap-ordered segment tree: node n spans its children 2n and 2n + 1 and holds the better of their keys.
+    // Leaves [leaves, 2 * leaves) stand for key n - leaves and are not stored
+    private final int leaves;
+    private final int[] tree;
+
+    private BookPrefixIndex(long[] ids, byte[] text, int[] textOffsets, int[] popularity, int keyCount,
+                            int maxKeyLength, byte[] keyData, int[] blockOffsets, int[] keyBooks) {
+        this.ids = ids;
+        this.text = text;
+        this.textOffsets = textOffsets;
+        this.popularity = popularity;
+        this.keyCount = keyCount;
+        this.maxKeyLength = maxKeyLength;
+        this.keyData = keyData;
+        this.blockOffsets = blockOffsets;
+        this.keyBooks = keyBooks;
+
+        this.idSlots = new int[Integer.highestOneBit(Math.max(2 * size() - 1, 1)) << 1];
+        for (int book = 0; book < size(); book++) {
+            int slot = idSlot(ids[2 * book], ids[2 * book + 1]);
+            while (idSlots[slot] != 0) {
+                slot = (slot + 1) & (idSlots.length - 1);
+            }
+            idSlots[slot] = book + 1;
+        }
+
+        int size = 1;
+        while (size < keyCount) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.tree = new int[size];
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = better(best(2 * node), best(2 * node + 1));
+        }
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /** Lower case, accents stripped, every run of punctuation and whitespace collapsed to one space. */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    /** The prefix to look up for what the user typed; ISBN-like input matches ISBNs with or without hyphens. */
+    static String normalizeQuery(String query) {
+        if (query != null && ISBN_QUERY.matcher(query.strip()).matches()) {
+            return normalize(query).replace(" ", "");
+        }
+        return normalize(query);
+    }
+
+    static List<String> keysOf(String title, String author, String isbn) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWordStarts(keys, normalize(title));
+        addWordStarts(keys, normalize(author));
+        keys.add(normalize(isbn).replace(" ", ""));
+        keys.remove("");
+        return List.copyOf(keys);
+    }
+
+    // "harry potter" is keyed as itself and as "potter"; normalized values have single spaces between words
+    private static void addWordStarts(Set<String> keys, String normalized) {
+        keys.add(normalized);
+        for (int space = normalized.indexOf(' '); space >= 0; space = normalized.indexOf(' ', space + 1)) {
+            keys.add(normalized.substring(space + 1));
+        }
+    }
+
+    int size() {
+        return ids.length / 2;
+    }
+
+    int keyCount() {
+        return keyCount;
+    }
+
+    /** Heap used by the index arrays, excluding object headers. */
+    long footprintBytes() {
+        return 8L * ids.length + text.length + 4L * textOffsets.length + 4L * popularity.length
+                + 4L * idSlots.length + keyData.length + 4L * blockOffsets.length + 4L * keyBooks.length + 4L * tree.length;
+    }
+
+    int popularityOf(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        for (int slot = idSlot(msb, lsb); idSlots[slot] != 0; slot = (slot + 1) & (idSlots.length - 1)) {
+            int book = idSlots[slot] - 1;
+            if (ids[2 * book] == msb && ids[2 * book + 1] == lsb) {
+                return popularity[book];
+            }
+        }
+        return 0;
+    }
+
+    // Time-ordered ids share their high bits, so both halves are mixed before taking the top bits
+    private int idSlot(long msb, long lsb) {
+        return (int) (((msb ^ lsb) * 0x9E3779B97F4A7C15L) >>> 32) & (idSlots.length - 1);
+    }
+
+    /**
+     * The most popular books with a key starting with the normalized prefix, best first, skipping the
+     * ids the predicate rejects.
+     */
+    List<Suggestion> top(String prefix, int limit, Predicate<UUID> skip) {
+        byte[] from = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] scratch = new byte[Math.max(maxKeyLength, from.length)];
+        int lo = lowerBound(from, scratch);
+        int hi = lowerBound(successor(from), scratch);
+        if (lo >= hi) {
+            return List.of();
+        }
+
+        PriorityQueue<Integer> nodes = new PriorityQueue<>(
+                Comparator.comparingInt((Integer node) -> -popularityOfKey(best(node)))
+                        .thenComparingInt(this::best));
+        for (int l = lo + leaves, r = hi + leaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                nodes.add(l++);
+            }
+            if ((r & 1) == 1) {
+                nodes.add(--r);
+            }
+        }
+
+        List<Suggestion> result = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        while (!nodes.isEmpty() && result.size() < limit) {
+            int node = nodes.poll();
+            int key = best(node);
+            int book = keyBooks[key];
+            if (seen.add(book)) {
+                Suggestion suggestion = suggestion(book);
+                if (!skip.test(suggestion.id())) {
+                    result.add(suggestion);
+                }
+            }
+            // The rest of this span: every sibling hanging off the path down to the key just taken
+            while (node < leaves) {
+                int left = 2 * node;
+                int onPath = best(left) == key ? left : left + 1;
+                int sibling = onPath ^ 1;
+                if (best(sibling) >= 0) {
+                    nodes.add(sibling);
+                }
+                node = onPath;
+            }
+        }
+        return result;
+    }
+
+    private Suggestion suggestion(int book) {
+        return new Suggestion(new UUID(ids[2 * book], ids[2 * book + 1]), text(3 * book), text(3 * book + 1),
+                text(3 * book + 2), popularity[book]);
+    }
+
+    private String text(int field) {
+        int start = textOffsets[field];
+        int end = textOffsets[field + 1];
+        return start == end ? null : new String(text, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    // Most popular key under a tree node, -1 for padding past the last key
+    private int best(int node) {
+        if (node < leaves) {
+            return tree[node];
+        }
+        int key = node - leaves;
+        return key < keyCount ? key : -1;
+    }
+
+    private int popularityOfKey(int key) {
+        return popularity[keyBooks[key]];
+    }
+
+    private int better(int a, int b) {
+        if (a < 0 || b < 0) {
+            return Math.max(a, b);
+        }
+        int pa = popularityOfKey(a);
+        int pb = popularityOfKey(b);
+        return pa > pb || (pa == pb && a < b) ? a : b;
+    }
+
+    // Index of the first key not less than the given bytes, in [0, keyCount]
+    private int lowerBound(byte[] target, byte[] scratch) {
+        if (target == null) {
+            return keyCount;
+        }
+        int lo = 0;
+        int hi = blockOffsets.length - 1;
+        int block = -1;
+        // Last block whose first key sorts before the target
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int offset = blockOffsets[mid];
+            int length = readVarInt(offset);
+            offset += varIntSize(length);
+            if (Arrays.compareUnsigned(keyData, offset, offset + length, target, 0, target.length) < 0) {
+                block = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return 0;
+        }
+
+        int key = block * BLOCK_SIZE;
+        int end = Math.min(key + BLOCK_SIZE, keyCount);
+        int offset = blockOffsets[block];
+        int length = 0;
+        for (; key < end; key++) {
+            int shared = 0;
+            if (key % BLOCK_SIZE != 0) {
+                shared = readVarInt(offset);
+                offset += varIntSize(shared);
+            }
+            int suffix = readVarInt(offset);
+            offset += varIntSize(suffix);
+            System.arraycopy(keyData, offset, scratch, shared, suffix);
+            offset += suffix;
+            length = shared + suffix;
+            if (Arrays.compareUnsigned(scratch, 0, length, target, 0, target.length) >= 0) {
+                return key;
+            }
+        }
+        return end;
+    }
+
+    // Smallest byte string greater than every string starting with the prefix; null if there is none
+    private static byte[] successor(byte[] prefix) {
+        byte[] next = prefix.clone();
+        for (int i = next.length - 1; i >= 0; i--) {
+            if (next[i] != (byte) 0xFF) {
+                next[i]++;
+                return Arrays.copyOf(next, i + 1);
+            }
+        }
+        return null;
+    }
+
+    private int readVarInt(int offset) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = keyData[offset++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    record Suggestion(UUID id, String title, String author, String isbn, int popularity) {
+    }
+
+    static final class Builder {
+
+        private long[] ids = new long[64];
+        private int[] textOffsets = new int[97];
+        private int[] popularity = new int[32];
+        private final ByteArrayOutputStream text = new ByteArrayOutputStream();
+        private final List<Key> keys = new ArrayList<>();
+        private int books;
+
+        private record Key(byte[] bytes, int book) {
+        }
+
+        Builder add(UUID id, String title, String author, String isbn, int popularity) {
+            if (books == this.popularity.length) {
+                this.ids = Arrays.copyOf(this.ids, 4 * books);
+                this.textOffsets = Arrays.copyOf(this.textOffsets, 6 * books + 1);
+                this.popularity = Arrays.copyOf(this.popularity, 2 * books);
+            }
+            int book = books++;
+            ids[2 * book] = id.getMostSignificantBits();
+            ids[2 * book + 1] = id.getLeastSignificantBits();
+            this.popularity[book] = popularity;
+            int field = 3 * book;
+            for (String value : new String[] {title, author, isbn}) {
+                if (value != null) {
+                    text.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                }
+                textOffsets[++field] = text.size();
+            }
+            for (String key : keysOf(title, author, isbn)) {
+                keys.add(new Key(key.getBytes(StandardCharsets.UTF_8), book));
+            }
+            return this;
+        }
+
+        BookPrefixIndex build() {
+            Key[] sorted = keys.toArray(Key[]::new);
+            Arrays.sort(sorted, (a, b) -> {
+                int order = Arrays.compareUnsigned(a.bytes(), b.bytes());
+                return order != 0 ? order : Integer.compare(a.book(), b.book());
+            });
+
+            ByteArrayOutputStream keyData = new ByteArrayOutputStream();
+            int[] blockOffsets = new int[(sorted.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+            int[] keyBooks = new int[sorted.length];
+            int maxKeyLength = 0;
+            byte[] previous = null;
+            for (int i = 0; i < sorted.length; i++) {
+                byte[] bytes = sorted[i].bytes();
+                int shared = 0;
+                if (i % BLOCK_SIZE == 0) {
+                    blockOffsets[i / BLOCK_SIZE] = keyData.size();
+                } else {
+                    shared = Arrays.mismatch(previous, bytes);
+                    shared = shared < 0 ? bytes.length : shared;
+                    writeVarInt(keyData, shared);
+                }
+                writeVarInt(keyData, bytes.length - shared);
+                keyData.write(bytes, shared, bytes.length - shared);
+                keyBooks[i] = sorted[i].book();
+                maxKeyLength = Math.max(maxKeyLength, bytes.length);
+                previous = bytes;
+            }
+
+            return new BookPrefixIndex(Arrays.copyOf(ids, 2 * books), text.toByteArray(),
+                    Arrays.copyOf(textOffsets, 3 * books + 1), Arrays.copyOf(popularity, books), sorted.length,
+                    maxKeyLength, keyData.toByteArray(), blockOffsets, keyBooks);
+        }
+    }
+}
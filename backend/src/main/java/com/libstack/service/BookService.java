@@ -1,51 +1,133 @@
 package com.libstack.service;
 
+import com.libstack.config.CacheConfig;
+import com.libstack.config.MetricsConfig;
 import com.libstack.dto.BookDTO;
 import com.libstack.dto.CreateBookRequest;
+import com.libstack.dto.CursorPage;
 import com.libstack.dto.UpdateBookRequest;
 import com.libstack.model.Book;
 import com.libstack.model.Category;
+import com.libstack.repository.BookField;
+import com.libstack.repository.BookFilter;
 import com.libstack.repository.BookRepository;
+import com.libstack.repository.BookSpecifications;
 import com.libstack.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class BookService {
 
     private final BookRepository bookRepository;
     private final CategoryRepository categoryRepository;
+    private final HoldService holdService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public BookService(BookRepository bookRepository, CategoryRepository categoryRepository) {
+    public BookService(BookRepository bookRepository, CategoryRepository categoryRepository,
+                       HoldService holdService, ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
         this.categoryRepository = categoryRepository;
+        this.holdService = holdService;
+        this.eventPublisher = eventPublisher;
     }
 
-    public Page<BookDTO> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable).map(this::toDTO);
+    @Transactional(readOnly = true)
+    public Page<BookDTO> getAllBooks(BookFilter filter, Pageable pageable) {
+        Pageable page = BookSpecifications.stablePage(filter, pageable);
+        return bookRepository.findAll(BookSpecifications.matching(filter), page).map(this::toDTO);
     }
 
-    public Page<BookDTO> searchBooks(String query, Pageable pageable) {
-        return bookRepository.searchBooks(query, pageable).map(this::toDTO);
+    // Keyset pages are in title order, searches included: relevance has no stable position to seek from
+    @Transactional(readOnly = true)
+    public CursorPage<BookDTO> getBooksAfter(BookFilter filter, String after, int requestedSize) {
+        int size = KeysetCursor.pageSize(requestedSize);
+        Limit limit = Limit.of(size + 1);
+        KeysetCursor cursor = KeysetCursor.isFirstPage(after) ? null : KeysetCursor.decode(after);
+        List<Book> books;
+        if (filter.isEmpty()) {
+            books = cursor == null
+                    ? bookRepository.findFirstByTitleKeyset(limit)
+                    : bookRepository.findByTitleKeysetAfter(cursor.sortKey(), cursor.id(), limit);
+        } else {
+            Specification<Book> specification = BookSpecifications.matching(filter);
+            if (cursor != null) {
+                specification = specification.and(BookSpecifications.titleAfter(cursor.sortKey(), cursor.id()));
+            }
+            books = bookRepository.findBy(specification,
+                    query -> query.sortBy(Sort.by("title", "id")).limit(size + 1).all());
+        }
+        return KeysetCursor.toPage(books, size, this::toDTO, book -> new KeysetCursor(book.getTitle(), book.getId()));
     }
 
-    public Page<BookDTO> getAvailableBooks(Pageable pageable) {
-        return bookRepository.findAvailableBooks(pageable).map(this::toDTO);
+    @Transactional(readOnly = true)
+    public Page<BookDTO> searchBooks(String query, Pageable pageable) {
+        return getAllBooks(BookFilter.search(query), pageable);
     }
 
-    public Page<BookDTO> getBooksByCategory(String categoryId, Pageable pageable) {
-        return bookRepository.findByCategoryId(categoryId, pageable).map(this::toDTO);
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getBookFields(String fields, BookFilter filter, Pageable pageable) {
+        return bookRepository.findFields(BookField.parse(fields), filter, pageable);
     }
 
-    public BookDTO getBookById(String id) {
+    // Read-write, so it reads the primary and may fill the caches: a copy loaded from a lagging replica
+    // right after a borrow evicted the entry would be cached with the old stock
+    @Cacheable(cacheNames = CacheConfig.BOOKS, key = "#id")
+    public BookDTO getBookById(UUID id) {
         return bookRepository.findById(id)
                 .map(this::toDTO)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
     }
 
+    // Book pages embed category names, so a category change invalidates every page as well. Callers read
+    // the version in the same transaction as the page it validates, so both come from one database
+    public ResourceVersion getCatalogVersion() {
+        return ResourceVersion.builder("books")
+                .counter(bookRepository.findCatalogVersion())
+                .counter(categoryRepository.findCatalogVersion())
+                .build();
+    }
+
+    // Books in the order of the given ids; ids without a book are left out
+    @Transactional(readOnly = true)
+    public List<BookDTO> getBooksByIds(List<UUID> ids) {
+        Map<UUID, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public ResourceVersion getBookVersion(UUID id) {
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
+        ResourceVersion.Builder version = ResourceVersion.builder("book").stamp(book.getUpdatedAt());
+        if (book.getCategory() != null) {
+            version.stamp(book.getCategory().getUpdatedAt());
+        }
+        return version.build();
+    }
+
     public BookDTO createBook(CreateBookRequest request) {
         Book book = new Book();
         book.setTitle(request.getTitle());
@@ -62,10 +144,12 @@ public class BookService {
         }
 
         Book savedBook = bookRepository.save(book);
+        publishChange(savedBook);
         return toDTO(savedBook);
     }
 
-    public BookDTO updateBook(String id, UpdateBookRequest request) {
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
+    public BookDTO updateBook(UUID id, UpdateBookRequest request) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
 
@@ -94,14 +178,30 @@ public class BookService {
         }
 
         Book updatedBook = bookRepository.save(book);
+        // Restocked copies go to waiting holds first, as returned copies do. The flush locks the book row, so
+        // no borrow can take them in between
+        if (request.getStockQuantity() != null) {
+            bookRepository.flush();
+            while (updatedBook.getStockQuantity() > 0 && holdService.promoteNextHold(id)) {
+                updatedBook.setStockQuantity(updatedBook.getStockQuantity() - 1);
+            }
+        }
+        publishChange(updatedBook);
         return toDTO(updatedBook);
     }
 
-    public void deleteBook(String id) {
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
+    public void deleteBook(UUID id) {
         if (!bookRepository.existsById(id)) {
             throw new RuntimeException("Book not found with id: " + id);
         }
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
+    }
+
+    private void publishChange(Book book) {
+        eventPublisher.publishEvent(
+                new BookChangedEvent(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), false));
     }
 
     private BookDTO toDTO(Book book) {
@@ -0,0 +1,179 @@
+package com.libstack.service;
+
+import com.libstack.dto.BookSuggestionDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves /api/v1/books/suggest from memory. A {@link BookPrefixIndex} built from the books table holds the
+ * catalog as of the last build; books written since then sit in a small overlay, applied when their
+ * transaction commits, that shadows the built entry. Popularity is the book's loan count at build time.
+ * Built at startup, in the background after every import and nightly, which also folds the overlay back in.
+ */
+@Component
+public class BookSuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSuggestIndex.class);
+
+    private static final int FETCH_SIZE = 10_000;
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final String BOOKS_SQL =
+            "SELECT b.id, b.title, b.author, b.isbn, COALESCE(l.loans, 0) AS loans FROM books b " +
+            "LEFT JOIN (SELECT book_id, COUNT(*) AS loans FROM loans GROUP BY book_id) l ON l.book_id = b.id";
+
+    private record Change(BookPrefixIndex.Suggestion suggestion, List<String> keys, long sequence) {
+    }
+
+    private record OverlayKey(String key, UUID bookId) implements Comparable<OverlayKey> {
+        @Override
+        public int compareTo(OverlayKey other) {
+            int order = key.compareTo(other.key);
+            return order != 0 ? order : bookId.compareTo(other.bookId);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate loadTransaction;
+    private final Object rebuildLock = new Object();
+    private final AtomicLong sequence = new AtomicLong();
+    // Books written since the index was built; a null suggestion marks a deleted book
+    private final Map<UUID, Change> changes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<OverlayKey> overlayKeys = new ConcurrentSkipListSet<>();
+    private volatile BookPrefixIndex index = BookPrefixIndex.EMPTY;
+
+    public BookSuggestIndex(DataSource dataSource, PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        // PostgreSQL only streams with a cursor when a fetch size is set and autocommit is off
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        // Not read-only, so the load runs on the primary: a lagging replica could miss the overlaid changes
+        // that the rebuild drops once it is done
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        Gauge.builder("library.suggest.index.size", this, suggestIndex -> suggestIndex.index.footprintBytes())
+                .description("Heap held by the typeahead index arrays")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("library.suggest.index.overlay", changes, Map::size)
+                .description("Books changed since the typeahead index was built")
+                .register(meterRegistry);
+    }
+
+    public List<BookSuggestionDTO> suggest(String query, int limit) {
+        String prefix = BookPrefixIndex.normalizeQuery(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, BookPrefixIndex.Suggestion> candidates = new LinkedHashMap<>();
+        for (BookPrefixIndex.Suggestion suggestion : index.top(prefix, limit, changes::containsKey)) {
+            candidates.put(suggestion.id(), suggestion);
+        }
+        for (OverlayKey key : overlayKeys.tailSet(new OverlayKey(prefix, MIN_ID))) {
+            if (!key.key().startsWith(prefix)) {
+                break;
+            }
+            Change change = changes.get(key.bookId());
+            if (change != null && change.suggestion() != null) {
+                candidates.putIfAbsent(key.bookId(), change.suggestion());
+            }
+        }
+
+        return candidates.values().stream()
+                .sorted(Comparator.comparingInt(BookPrefixIndex.Suggestion::popularity).reversed()
+                        .thenComparing(BookPrefixIndex.Suggestion::title))
+                .limit(limit)
+                .map(suggestion -> new BookSuggestionDTO(suggestion.id(), suggestion.title(), suggestion.author(),
+                        suggestion.isbn()))
+                .toList();
+    }
+
+    @TransactionalEventListener
+    public synchronized void bookChanged(BookChangedEvent event) {
+        UUID id = event.bookId();
+        Change previous = changes.get(id);
+        int popularity = previous != null && previous.suggestion() != null
+                ? previous.suggestion().popularity()
+                : index.popularityOf(id);
+        removeOverlayKeys(id, previous);
+
+        if (event.deleted()) {
+            changes.put(id, new Change(null, List.of(), sequence.incrementAndGet()));
+            return;
+        }
+        List<String> keys = BookPrefixIndex.keysOf(event.title(), event.author(), event.isbn());
+        BookPrefixIndex.Suggestion suggestion =
+                new BookPrefixIndex.Suggestion(id, event.title(), event.author(), event.isbn(), popularity);
+        changes.put(id, new Change(suggestion, keys, sequence.incrementAndGet()));
+        keys.forEach(key -> overlayKeys.add(new OverlayKey(key, id)));
+    }
+
+    // Imports write through JDBC and bypass the overlay; they return without waiting for the load
+    @Async
+    public void rebuildInBackground() {
+        rebuild();
+    }
+
+    // Loading a large catalog takes seconds and must not hold up readiness; until it finishes, suggestions
+    // come from the overlay alone
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    public void buildAtStartup() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${app.suggest.rebuild-cron}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            // Changes up to here committed before the load starts, so the load sees them; later ones stay overlaid
+            long loadedUpTo = sequence.get();
+            long start = System.nanoTime();
+            BookPrefixIndex.Builder builder = BookPrefixIndex.builder();
+            loadTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.query(BOOKS_SQL, rs -> {
+                        builder.add(rs.getObject("id", UUID.class), rs.getString("title"), rs.getString("author"),
+                                rs.getString("isbn"), rs.getInt("loans"));
+                    }));
+            BookPrefixIndex built = builder.build();
+
+            synchronized (this) {
+                index = built;
+                changes.entrySet().removeIf(entry -> {
+                    boolean loaded = entry.getValue().sequence() <= loadedUpTo;
+                    if (loaded) {
+                        removeOverlayKeys(entry.getKey(), entry.getValue());
+                    }
+                    return loaded;
+                });
+            }
+            log.info("Built suggest index: books={} keys={} size={}KB in {}ms", built.size(), built.keyCount(),
+                    built.footprintBytes() >> 10, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void removeOverlayKeys(UUID id, Change change) {
+        if (change != null) {
+            change.keys().forEach(key -> overlayKeys.remove(new OverlayKey(key, id)));
+        }
+    }
+}
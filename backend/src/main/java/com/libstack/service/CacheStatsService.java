@@ -0,0 +1,83 @@
+package com.libstack.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.libstack.config.MetricsConfig;
+import com.libstack.dto.CacheStatsDTO;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class CacheStatsService {
+
+    private static final String HIBERNATE_PREFIX = "hibernate:";
+
+    private final CacheManager cacheManager;
+    private final Statistics statistics;
+    // The JCache manager behind the Hibernate regions; Hibernate's statistics do not count evictions
+    private final javax.cache.CacheManager regionCaches;
+
+    public CacheStatsService(CacheManager cacheManager, EntityManagerFactory entityManagerFactory) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.cacheManager = cacheManager;
+        this.statistics = sessionFactory.getStatistics();
+        this.regionCaches = sessionFactory.getCache().getRegionFactory() instanceof JCacheRegionFactory jcache
+                ? jcache.getCacheManager()
+                : null;
+    }
+
+    public List<CacheStatsDTO> getCacheStats() {
+        Stream<CacheStatsDTO> applicationCaches = cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .map(cache -> toDTO(cache.getName(), (Cache<?, ?>) cache.getNativeCache()));
+        // Second-level entity regions plus the query results region
+        Stream<CacheStatsDTO> hibernateRegions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(statistics::getCacheRegionStatistics)
+                .filter(Objects::nonNull)
+                .map(this::toDTO);
+        return Stream.concat(applicationCaches, hibernateRegions).collect(Collectors.toList());
+    }
+
+    private CacheStatsDTO toDTO(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setName(name);
+        dto.setSize(cache.estimatedSize());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        return dto;
+    }
+
+    private CacheStatsDTO toDTO(CacheRegionStatistics region) {
+        long requests = region.getHitCount() + region.getMissCount();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setName(HIBERNATE_PREFIX + region.getRegionName());
+        dto.setSize(Math.max(region.getElementCountInMemory(), 0));
+        dto.setHitCount(region.getHitCount());
+        dto.setMissCount(region.getMissCount());
+        dto.setHitRate(requests == 0 ? 1.0 : (double) region.getHitCount() / requests);
+        dto.setEvictionCount(regionEvictions(region.getRegionName()));
+        return dto;
+    }
+
+    private long regionEvictions(String regionName) {
+        javax.cache.Cache<?, ?> cache = regionCaches != null ? regionCaches.getCache(regionName) : null;
+        return cache != null ? cache.unwrap(Cache.class).stats().evictionCount() : 0;
+    }
+}
@@ -1,16 +1,24 @@
 package com.libstack.service;
 
+import com.libstack.config.CacheConfig;
+import com.libstack.config.MetricsConfig;
 import com.libstack.dto.CategoryDTO;
 import com.libstack.dto.CreateCategoryRequest;
 import com.libstack.model.Category;
 import com.libstack.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class CategoryService {
 
@@ -20,18 +28,32 @@ public class CategoryService {
         this.categoryRepository = categoryRepository;
     }
 
+    // Read-write, so the shared cache is only ever filled from the primary
+    @Cacheable(CacheConfig.CATEGORIES)
     public List<CategoryDTO> getAllCategories() {
         return categoryRepository.findAll().stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
-    public CategoryDTO getCategoryById(String id) {
+    @Transactional(readOnly = true)
+    public CategoryDTO getCategoryById(UUID id) {
         return categoryRepository.findById(id)
                 .map(this::toDTO)
                 .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
     }
 
+    public ResourceVersion getCategoriesVersion() {
+        return ResourceVersion.builder("categories").counter(categoryRepository.findCatalogVersion()).build();
+    }
+
+    public ResourceVersion getCategoryVersion(UUID id) {
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+        return ResourceVersion.builder("category").stamp(category.getUpdatedAt()).build();
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public CategoryDTO createCategory(CreateCategoryRequest request) {
         if (categoryRepository.existsByName(request.getName())) {
             throw new RuntimeException("Category already exists with name: " + request.getName());
@@ -45,7 +67,12 @@ public class CategoryService {
         return toDTO(savedCategory);
     }
 
-    public CategoryDTO updateCategory(String id, CreateCategoryRequest request) {
+    // Cached books embed the category name, so renames and deletes drop them as well
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, allEntries = true)
+    })
+    public CategoryDTO updateCategory(UUID id, CreateCategoryRequest request) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
 
@@ -60,7 +87,11 @@ public class CategoryService {
         return toDTO(updatedCategory);
     }
 
-    public void deleteCategory(String id) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, allEntries = true)
+    })
+    public void deleteCategory(UUID id) {
         if (!categoryRepository.existsById(id)) {
             throw new RuntimeException("Category not found with id: " + id);
         }
@@ -0,0 +1,175 @@
+package com.libstack.service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable "readers also borrowed" model over book and user ordinals from {@link UuidOrdinals}. For every
+ * book it keeps the books most often borrowed by the same readers, with how many readers borrowed both,
+ * as compressed sparse rows: one offsets array and two flat arrays of neighbors and counts. For every
+ * reader it keeps their most recently borrowed books, which is all an incremental update needs to know.
+ */
+final class CoBorrowModel {
+
+    /** Neighbors kept per book once the model is built. */
+    static final int MAX_NEIGHBORS = 20;
+    /** Most recent distinct books per reader that pair up; older loans stop counting. */
+    static final int HISTORY_LIMIT = 50;
+    /** A book's running counts are pruned back to half of this whenever they grow past it. */
+    static final int MAX_TRACKED = 8 * MAX_NEIGHBORS;
+
+    static final CoBorrowModel EMPTY = new Builder().build(0, 0);
+
+    private final int[] neighborOffsets;
+    private final int[] neighbors;
+    private final int[] counts;
+    private final int[] historyOffsets;
+    private final int[] history;
+    private final long loans;
+
+    private CoBorrowModel(int[] neighborOffsets, int[] neighbors, int[] counts, int[] historyOffsets,
+                          int[] history, long loans) {
+        this.neighborOffsets = neighborOffsets;
+        this.neighbors = neighbors;
+        this.counts = counts;
+        this.historyOffsets = historyOffsets;
+        this.history = history;
+        this.loans = loans;
+    }
+
+    /** Loans the model was built from. */
+    long loans() {
+        return loans;
+    }
+
+    long pairs() {
+        return neighbors.length;
+    }
+
+    /** Heap used by the model arrays, excluding object headers. */
+    long footprintBytes() {
+        return 4L * (neighborOffsets.length + neighbors.length + counts.length + historyOffsets.length
+                + history.length);
+    }
+
+    void forEachNeighbor(int book, IntCounter.Visitor visitor) {
+        if (book < 0 || book >= neighborOffsets.length - 1) {
+            return;
+        }
+        for (int i = neighborOffsets[book]; i < neighborOffsets[book + 1]; i++) {
+            visitor.visit(neighbors[i], counts[i]);
+        }
+    }
+
+    /** The reader's books, least recent first. */
+    int[] history(int user) {
+        if (user < 0 || user >= historyOffsets.length - 1) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(history, historyOffsets[user], historyOffsets[user + 1]);
+    }
+
+    /**
+     * Takes loans as (user, book) ordinals grouped by user and in borrow order within a user. Each user's
+     * most recent {@link #HISTORY_LIMIT} distinct books add one to the count of every pair among them.
+     */
+    static final class Builder {
+
+        private IntCounter[] pairs = new IntCounter[1024];
+        private int[][] histories = new int[1024][];
+        private int[] books = new int[HISTORY_LIMIT];
+        private int bookCount;
+        private int user = -1;
+        private long loans;
+
+        void add(int user, int book) {
+            if (user != this.user) {
+                flush();
+                this.user = user;
+            }
+            loans++;
+            // A re-borrow moves the book to the most recent end instead of counting twice
+            for (int i = 0; i < bookCount; i++) {
+                if (books[i] == book) {
+                    System.arraycopy(books, i + 1, books, i, bookCount - i - 1);
+                    bookCount--;
+                    break;
+                }
+            }
+            if (bookCount == books.length) {
+                books = Arrays.copyOf(books, 2 * books.length);
+            }
+            books[bookCount++] = book;
+        }
+
+        CoBorrowModel build(int bookOrdinals, int userOrdinals) {
+            flush();
+
+            int[] neighborOffsets = new int[bookOrdinals + 1];
+            int[][] rows = new int[bookOrdinals][];
+            for (int book = 0; book < bookOrdinals; book++) {
+                IntCounter counter = book < pairs.length ? pairs[book] : null;
+                rows[book] = counter != null ? counter.top(MAX_NEIGHBORS) : new int[0];
+                neighborOffsets[book + 1] = neighborOffsets[book] + rows[book].length;
+            }
+            int[] neighbors = new int[neighborOffsets[bookOrdinals]];
+            int[] counts = new int[neighbors.length];
+            for (int book = 0; book < bookOrdinals; book++) {
+                System.arraycopy(rows[book], 0, neighbors, neighborOffsets[book], rows[book].length);
+                for (int i = 0; i < rows[book].length; i++) {
+                    counts[neighborOffsets[book] + i] = pairs[book].get(rows[book][i]);
+                }
+                // Release the running counts as the rows are laid out
+                rows[book] = null;
+                if (book < pairs.length) {
+                    pairs[book] = null;
+                }
+            }
+
+            int[] historyOffsets = new int[userOrdinals + 1];
+            for (int user = 0; user < userOrdinals; user++) {
+                int[] recent = user < histories.length ? histories[user] : null;
+                historyOffsets[user + 1] = historyOffsets[user] + (recent != null ? recent.length : 0);
+            }
+            int[] history = new int[historyOffsets[userOrdinals]];
+            for (int user = 0; user < userOrdinals && user < histories.length; user++) {
+                if (histories[user] != null) {
+                    System.arraycopy(histories[user], 0, history, historyOffsets[user], histories[user].length);
+                }
+            }
+            return new CoBorrowModel(neighborOffsets, neighbors, counts, historyOffsets, history, loans);
+        }
+
+        private void flush() {
+            if (user < 0) {
+                return;
+            }
+            int[] recent = Arrays.copyOfRange(books, Math.max(0, bookCount - HISTORY_LIMIT), bookCount);
+            for (int a : recent) {
+                for (int b : recent) {
+                    if (a != b) {
+                        count(a, b);
+                    }
+                }
+            }
+            if (user >= histories.length) {
+                histories = Arrays.copyOf(histories, Math.max(2 * histories.length, user + 1));
+            }
+            histories[user] = recent;
+            bookCount = 0;
+            user = -1;
+        }
+
+        private void count(int book, int other) {
+            if (book >= pairs.length) {
+                pairs = Arrays.copyOf(pairs, Math.max(2 * pairs.length, book + 1));
+            }
+            if (pairs[book] == null) {
+                pairs[book] = new IntCounter();
+            }
+            pairs[book].add(other, 1);
+            if (pairs[book].size() > MAX_TRACKED) {
+                pairs[book].prune(MAX_TRACKED / 2);
+            }
+        }
+    }
+}
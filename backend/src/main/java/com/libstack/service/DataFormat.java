@@ -0,0 +1,43 @@
+package com.libstack.service;
+
+import org.springframework.http.MediaType;
+
+public enum DataFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    DataFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static DataFormat fromExtension(String extension) {
+        for (DataFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(extension)) {
+                return format;
+            }
+        }
+        throw new RuntimeException("Unsupported format: " + extension);
+    }
+
+    public static DataFormat fromMediaType(String contentType) {
+        MediaType requested = MediaType.parseMediaType(contentType);
+        for (DataFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(requested)) {
+                return format;
+            }
+        }
+        throw new RuntimeException("Unsupported format: " + contentType);
+    }
+}
@@ -0,0 +1,135 @@
+package com.libstack.service;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.libstack.config.MetricsConfig;
+import com.libstack.dto.BookDTO;
+import com.libstack.dto.LoanDTO;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams whole tables to an output stream. Rows are read through a server-side cursor
+ * (fetch size inside a read-only transaction) and written one by one, so heap use does
+ * not depend on table size.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class ExportService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final String BOOKS_SQL =
+            "SELECT b.id, b.title, b.author, b.isbn, b.description, b.cover_url, b.stock_quantity, " +
+            "b.category_id, c.name AS category_name " +
+            "FROM books b LEFT JOIN categories c ON c.id = b.category_id";
+
+    private static final String LOANS_SQL =
+            "SELECT l.id, l.user_id, u.name AS user_name, l.book_id, b.title, b.author, b.cover_url, " +
+            "l.borrowed_at, l.due_date, l.returned_at, l.status " +
+            "FROM loans l JOIN users u ON u.id = l.user_id JOIN books b ON b.id = l.book_id";
+
+    private static final RowMapper<BookDTO> BOOK_ROW = (rs, rowNum) -> {
+        BookDTO dto = new BookDTO();
+        dto.setId(rs.getObject("id", UUID.class));
+        dto.setTitle(rs.getString("title"));
+        dto.setAuthor(rs.getString("author"));
+        dto.setIsbn(rs.getString("isbn"));
+        dto.setDescription(rs.getString("description"));
+        dto.setCoverUrl(rs.getString("cover_url"));
+        dto.setStockQuantity(rs.getInt("stock_quantity"));
+        dto.setAvailableStock(dto.getStockQuantity());
+        dto.setAvailable(dto.getStockQuantity() > 0);
+        dto.setCategoryId(rs.getObject("category_id", UUID.class));
+        dto.setCategoryName(rs.getString("category_name"));
+        return dto;
+    };
+
+    private static final RowMapper<LoanDTO> LOAN_ROW = (rs, rowNum) -> {
+        LoanDTO dto = new LoanDTO();
+        dto.setId(rs.getObject("id", UUID.class));
+        dto.setUserId(rs.getObject("user_id", UUID.class));
+        dto.setUserName(rs.getString("user_name"));
+        dto.setBookId(rs.getObject("book_id", UUID.class));
+        dto.setBookTitle(rs.getString("title"));
+        dto.setBookAuthor(rs.getString("author"));
+        dto.setBookCoverUrl(rs.getString("cover_url"));
+        dto.setBorrowedAt(rs.getTimestamp("borrowed_at").toLocalDateTime());
+        Date dueDate = rs.getDate("due_date");
+        dto.setDueDate(dueDate != null ? dueDate.toLocalDate() : null);
+        Timestamp returnedAt = rs.getTimestamp("returned_at");
+        dto.setReturnedAt(returnedAt != null ? returnedAt.toLocalDateTime() : null);
+        dto.setStatus(rs.getString("status"));
+        dto.setOverdue("OVERDUE".equals(dto.getStatus()));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper) {
+        // PostgreSQL only streams with a cursor when a fetch size is set and autocommit is off
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .findAndAddModules()
+                // Keep columns in DTO declaration order rather than CsvMapper's alphabetical default
+                .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public void exportBooks(OutputStream out, DataFormat format, boolean gzip) throws IOException {
+        export(out, format, gzip, BookDTO.class, BOOKS_SQL, BOOK_ROW);
+    }
+
+    public void exportLoans(OutputStream out, DataFormat format, boolean gzip) throws IOException {
+        export(out, format, gzip, LoanDTO.class, LOANS_SQL, LOAN_ROW);
+    }
+
+    private <T> void export(OutputStream out, DataFormat format, boolean gzip, Class<T> type, String sql,
+                            RowMapper<T> rowMapper) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : out;
+        try (SequenceWriter writer = writerFor(type, format).writeValues(target)) {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.query(sql, rs -> {
+                        try {
+                            writer.write(rowMapper.mapRow(rs, 0));
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    }));
+        }
+    }
+
+    private ObjectWriter writerFor(Class<?> type, DataFormat format) {
+        if (format == DataFormat.CSV) {
+            return csvMapper.writer(csvMapper.schemaFor(type).withHeader());
+        }
+        return objectMapper.writerFor(type).withRootValueSeparator("\n");
+    }
+}
@@ -0,0 +1,72 @@
+package com.libstack.service;
+
+import com.libstack.config.CacheConfig;
+import com.libstack.model.Hold;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.HoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Component
+public class HoldExpirySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpirySweeper.class);
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final HoldService holdService;
+    private final CacheManager cacheManager;
+
+    public HoldExpirySweeper(HoldRepository holdRepository, BookRepository bookRepository, HoldService holdService,
+                             CacheManager cacheManager) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.holdService = holdService;
+        this.cacheManager = cacheManager;
+    }
+
+    @Scheduled(cron = "${app.holds.expiry-sweep-cron}")
+    @Transactional
+    public int sweep() {
+        Set<UUID> touchedBooks = new HashSet<>();
+
+        // Expire every uncollected copy in one update, then pass each copy on to the next holder
+        List<Hold> expired = holdRepository.findExpiredReady(LocalDateTime.now());
+        if (!expired.isEmpty()) {
+            holdRepository.markExpired(expired.stream().map(Hold::getId).toList());
+            for (Hold hold : expired) {
+                holdService.allocateCopy(hold.getBook().getId());
+                touchedBooks.add(hold.getBook().getId());
+            }
+            log.info("Expired {} uncollected holds", expired.size());
+        }
+
+        // Take shelf copies for waiting holds, one conditional decrement per copy
+        for (UUID bookId : holdRepository.findBooksInStockWithWaitingHolds()) {
+            while (bookRepository.decrementStock(bookId) > 0) {
+                if (!holdService.promoteNextHold(bookId)) {
+                    bookRepository.incrementStock(bookId);
+                    break;
+                }
+            }
+            touchedBooks.add(bookId);
+        }
+
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        if (books != null) {
+            touchedBooks.forEach(books::evict);
+        }
+        return expired.size();
+    }
+}
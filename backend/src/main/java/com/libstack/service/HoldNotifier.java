@@ -0,0 +1,61 @@
+package com.libstack.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes hold-ready events to the holder's open server-sent event streams, so clients wait on
+ * /api/v1/holds/stream instead of polling the book. Streams are per instance; a client that is not
+ * connected when its copy is set aside sees the READY hold in /api/v1/holds/my-holds.
+ */
+@Component
+public class HoldNotifier {
+
+    private final Map<UUID, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    public HoldNotifier(@Value("${app.holds.stream-timeout}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe(UUID userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitters.compute(userId, (id, userEmitters) -> {
+            Set<SseEmitter> set = userEmitters != null ? userEmitters : ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+        Runnable remove = () -> emitters.computeIfPresent(userId, (id, userEmitters) -> {
+            userEmitters.remove(emitter);
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(ex -> remove.run());
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void holdReady(HoldReadyEvent event) {
+        for (SseEmitter emitter : emitters.getOrDefault(event.hold().getUserId(), Set.of())) {
+            try {
+                emitter.send(SseEmitter.event()
+                    .name("hold-ready")
+                    .id(event.hold().getId().toString())
+                    .data(event.hold(), MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException ex) {
+                emitter.completeWithError(ex);
+            }
+        }
+    }
+}
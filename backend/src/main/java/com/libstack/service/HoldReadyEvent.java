@@ -0,0 +1,7 @@
+package com.libstack.service;
+
+import com.libstack.dto.HoldDTO;
+
+// Published when a copy is set aside for a hold; delivered to the holder once the transaction commits
+public record HoldReadyEvent(HoldDTO hold) {
+}
@@ -0,0 +1,152 @@
+package com.libstack.service;
+
+import com.libstack.config.MetricsConfig;
+import com.libstack.dto.HoldDTO;
+import com.libstack.model.Book;
+import com.libstack.model.Hold;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.HoldRepository;
+import com.libstack.repository.HoldRepository.QueuePosition;
+import com.libstack.repository.LoanRepository;
+import com.libstack.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@Transactional
+public class HoldService {
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration pickupWindow;
+
+    public HoldService(HoldRepository holdRepository, BookRepository bookRepository, LoanRepository loanRepository,
+                       UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+                       @Value("${app.holds.pickup-window}") Duration pickupWindow) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.loanRepository = loanRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.pickupWindow = pickupWindow;
+    }
+
+    public HoldDTO placeHold(UUID userId, UUID bookId) {
+        Book book = bookRepository.findById(bookId)
+            .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+        if (book.getStockQuantity() > 0) {
+            throw new RuntimeException("Book is available for borrowing");
+        }
+        if (loanRepository.findActiveBookIdsByUserId(userId).contains(bookId)) {
+            throw new RuntimeException("User already has an active loan for this book");
+        }
+
+        Hold hold = new Hold();
+        hold.setUser(userRepository.getReferenceById(userId));
+        hold.setBook(book);
+        // idx_holds_user_book_open allows one open hold per user and book
+        try {
+            holdRepository.saveAndFlush(hold);
+        } catch (DataIntegrityViolationException ex) {
+            throw new RuntimeException("User already has a hold on this book");
+        }
+        return toHoldDTO(hold);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getOpenHoldsByUserId(UUID userId) {
+        List<Hold> holds = holdRepository.findOpenHoldsByUserId(userId);
+        Map<UUID, Long> positions = holds.stream().anyMatch(Hold::isWaiting)
+            ? holdRepository.findQueuePositions(userId).stream()
+                .collect(Collectors.toMap(QueuePosition::getId, QueuePosition::getPosition))
+            : Map.of();
+        return holds.stream()
+            .map(hold -> toHoldDTO(hold, positions.get(hold.getId())))
+            .toList();
+    }
+
+    public HoldDTO cancelHold(UUID userId, UUID holdId) {
+        Hold hold = holdRepository.findById(holdId)
+            .filter(h -> h.getUser().getId().equals(userId))
+            .orElseThrow(() -> new RuntimeException("Hold not found with id: " + holdId));
+
+        // Conditional updates so a cancel racing a return or the expiry sweep hands a copy on at most once
+        if (holdRepository.cancel(holdId, "WAITING") == 0) {
+            if (holdRepository.cancel(holdId, "READY") == 0) {
+                throw new RuntimeException("Hold is no longer active");
+            }
+            allocateCopy(hold.getBook().getId());
+        }
+        // The loaded hold may already be stale; it is left untouched so the commit cannot write it back
+        HoldDTO dto = toHoldDTO(hold, null);
+        dto.setStatus("CANCELLED");
+        return dto;
+    }
+
+    /**
+     * Hands a copy that just came back to the head of the book's queue, or returns it to stock when nobody
+     * is waiting. Runs in the caller's transaction.
+     */
+    public void allocateCopy(UUID bookId) {
+        if (!promoteNextHold(bookId)) {
+            bookRepository.incrementStock(bookId);
+        }
+    }
+
+    /**
+     * Sets a copy aside for the first waiting hold on the book. The caller owns the copy; it is not taken
+     * from stock here. Returns false when nobody is waiting.
+     */
+    public boolean promoteNextHold(UUID bookId) {
+        Optional<Hold> next = holdRepository.findNextWaiting(bookId);
+        if (next.isEmpty()) {
+            return false;
+        }
+        Hold hold = next.get();
+        LocalDateTime now = LocalDateTime.now();
+        hold.setStatus("READY");
+        hold.setReadyAt(now);
+        hold.setExpiresAt(now.plus(pickupWindow));
+        eventPublisher.publishEvent(new HoldReadyEvent(toHoldDTO(hold)));
+        return true;
+    }
+
+    private HoldDTO toHoldDTO(Hold hold) {
+        Long position = hold.isWaiting()
+            ? holdRepository.countAhead(hold.getBook().getId(), hold.getCreatedAt(), hold.getId()) + 1
+            : null;
+        return toHoldDTO(hold, position);
+    }
+
+    private HoldDTO toHoldDTO(Hold hold, Long position) {
+        HoldDTO dto = new HoldDTO();
+        dto.setId(hold.getId());
+        dto.setUserId(hold.getUser().getId());
+        dto.setBookId(hold.getBook().getId());
+        dto.setBookTitle(hold.getBook().getTitle());
+        dto.setStatus(hold.getStatus());
+        if (position != null) {
+            dto.setPosition(position.intValue());
+        }
+        dto.setCreatedAt(hold.getCreatedAt());
+        dto.setReadyAt(hold.getReadyAt());
+        dto.setExpiresAt(hold.getExpiresAt());
+        return dto;
+    }
+}
@@ -0,0 +1,138 @@
+package com.libstack.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative int keys to int counts, two parallel int arrays with linear
+ * probing. About 8-16 bytes per entry against roughly 60 for a {@code HashMap<Integer, Integer>}.
+ * Not thread-safe.
+ */
+final class IntCounter {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+
+    IntCounter() {
+        this(4);
+    }
+
+    IntCounter(int expected) {
+        keys = new int[capacityFor(expected)];
+        counts = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int key) {
+        int slot = find(keys, key);
+        return keys[slot] == key ? counts[slot] : 0;
+    }
+
+    void add(int key, int delta) {
+        int slot = find(keys, key);
+        if (keys[slot] == key) {
+            counts[slot] += delta;
+            return;
+        }
+        keys[slot] = key;
+        counts[slot] = delta;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Drops the lowest counts until at most {@code maxSize} entries are left. Keeps the build of a
+     * co-occurrence model within bounds: pairs seen only once or twice are the long tail that never
+     * makes a top list.
+     */
+    void prune(int maxSize) {
+        if (size <= maxSize) {
+            return;
+        }
+        int[] sorted = new int[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                sorted[n++] = counts[slot];
+            }
+        }
+        Arrays.sort(sorted);
+        // Ties at the threshold go too, so this can leave fewer than maxSize
+        int threshold = sorted[size - maxSize - 1];
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && counts[slot] <= threshold) {
+                keys[slot] = EMPTY;
+                size--;
+            }
+        }
+        // Rehash so that probe chains broken by the removals are whole again
+        resize(capacityFor(size));
+    }
+
+    /** Keys ordered by count descending, then key, at most {@code limit} of them. */
+    int[] top(int limit) {
+        long[] entries = new long[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                // Count in the high half (inverted so that ascending order is count descending), key in the low
+                entries[n++] = ((long) (Integer.MAX_VALUE - counts[slot]) << 32) | keys[slot];
+            }
+        }
+        Arrays.sort(entries);
+        int[] top = new int[Math.min(limit, n)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = (int) entries[i];
+        }
+        return top;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                visitor.visit(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    interface Visitor {
+        void visit(int key, int count);
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int target = find(keys, oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                counts[target] = oldCounts[slot];
+            }
+        }
+    }
+
+    // Power of two with room for the entries at a load factor of at most one half
+    private static int capacityFor(int entries) {
+        return Integer.highestOneBit(Math.max(4, entries * 2 - 1)) << 1;
+    }
+
+    private static int find(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,55 @@
+package com.libstack.service;
+
+import com.libstack.dto.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Opaque seek position over (sortKey, id). Ids are UUIDs, so the first ':' always
+ * separates the id from the sort key.
+ */
+record KeysetCursor(String sortKey, UUID id) {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    static boolean isFirstPage(String token) {
+        return token == null || token.isEmpty();
+    }
+
+    static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new KeysetCursor(raw.substring(separator + 1), UUID.fromString(raw.substring(0, separator)));
+        } catch (IllegalArgumentException ex) {
+            throw new RuntimeException("Invalid pagination cursor: " + token);
+        }
+    }
+
+    static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    String encode() {
+        String raw = id + ":" + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Callers fetch size + 1 rows; the extra row only signals that another page exists
+    static <E, T> CursorPage<T> toPage(List<E> rows, int size, Function<E, T> mapper,
+                                       Function<E, KeysetCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        List<T> content = page.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(content, content.size(), hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,39 @@
+package com.libstack.service;
+
+import com.libstack.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class LoanCounterReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanCounterReconciler.class);
+
+    private final UserRepository userRepository;
+
+    public LoanCounterReconciler(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // The counter is kept in step by LoanService; this catches loans changed outside it (SQL fixes, imports)
+    @Scheduled(cron = "${app.loans.counter-reconcile-cron}")
+    @Transactional
+    public int reconcile() {
+        List<UUID> drifted = userRepository.findIdsWithDriftedLoanCount();
+        for (UUID userId : drifted) {
+            // Lock first so the recount runs in a later statement and sees borrows that committed meanwhile
+            userRepository.lockById(userId);
+            userRepository.recountLoans(userId);
+        }
+        if (!drifted.isEmpty()) {
+            log.warn("Reconciled active loan counters for {} users", drifted.size());
+        }
+        return drifted.size();
+    }
+}
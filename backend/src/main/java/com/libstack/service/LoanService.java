@@ -1,114 +1,282 @@
 package com.libstack.service;
 
+import com.libstack.config.CacheConfig;
+import com.libstack.config.MetricsConfig;
+import com.libstack.dto.BatchLoanItemDTO;
+import com.libstack.dto.BatchLoanResultDTO;
+import com.libstack.dto.CursorPage;
 import com.libstack.dto.LoanDTO;
 import com.libstack.model.Book;
 import com.libstack.model.Loan;
 import com.libstack.model.User;
 import com.libstack.repository.BookRepository;
+import com.libstack.repository.HoldRepository;
 import com.libstack.repository.LoanRepository;
 import com.libstack.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class LoanService {
 
-    private static final int MAX_ACTIVE_LOANS = 5;
+    static final int MAX_ACTIVE_LOANS = 5;
 
     private final LoanRepository loanRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final HoldRepository holdRepository;
+    private final HoldService holdService;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public LoanService(LoanRepository loanRepository, BookRepository bookRepository, UserRepository userRepository) {
+    public LoanService(LoanRepository loanRepository, BookRepository bookRepository, UserRepository userRepository,
+                       HoldRepository holdRepository, HoldService holdService, CacheManager cacheManager,
+                       ApplicationEventPublisher eventPublisher) {
         this.loanRepository = loanRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
+        this.holdRepository = holdRepository;
+        this.holdService = holdService;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
     }
 
-    public Page<LoanDTO> getLoansByUserId(String userId, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<LoanDTO> getLoansByUserId(UUID userId, Pageable pageable) {
         return loanRepository.findByUserId(userId, pageable).map(this::toLoanDTO);
     }
 
-    public List<LoanDTO> getActiveLoansByUserId(String userId) {
+    @Transactional(readOnly = true)
+    public CursorPage<LoanDTO> getLoansByUserIdBefore(UUID userId, String after, int requestedSize) {
+        int size = KeysetCursor.pageSize(requestedSize);
+        Limit limit = Limit.of(size + 1);
+        List<Loan> loans;
+        if (KeysetCursor.isFirstPage(after)) {
+            loans = loanRepository.findFirstByUserIdBorrowedAtKeyset(userId, limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            loans = loanRepository.findByUserIdBorrowedAtKeysetBefore(userId, parseBorrowedAt(cursor), cursor.id(), limit);
+        }
+        return KeysetCursor.toPage(loans, size, this::toLoanDTO, this::toCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public List<LoanDTO> getActiveLoansByUserId(UUID userId) {
         return loanRepository.findActiveLoansByUserId(userId).stream()
             .map(this::toLoanDTO)
             .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public Page<LoanDTO> getAllLoans(Pageable pageable) {
         return loanRepository.findAll(pageable).map(this::toLoanDTO);
     }
 
-    public List<LoanDTO> getOverdueLoans() {
-        return loanRepository.findOverdueLoans().stream()
-            .map(this::toLoanDTO)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<LoanDTO> getAllLoansBefore(String after, int requestedSize) {
+        int size = KeysetCursor.pageSize(requestedSize);
+        Limit limit = Limit.of(size + 1);
+        List<Loan> loans;
+        if (KeysetCursor.isFirstPage(after)) {
+            loans = loanRepository.findFirstByBorrowedAtKeyset(limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            loans = loanRepository.findByBorrowedAtKeysetBefore(parseBorrowedAt(cursor), cursor.id(), limit);
+        }
+        return KeysetCursor.toPage(loans, size, this::toLoanDTO, this::toCursor);
     }
 
-    public LoanDTO borrowBook(String userId, String bookId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
-
-        // Check if user already has this book borrowed
-        if (loanRepository.existsByUserIdAndBookIdAndStatus(userId, bookId, "ACTIVE")) {
-            throw new RuntimeException("User already has an active loan for this book");
-        }
+    @Transactional(readOnly = true)
+    public Page<LoanDTO> getOverdueLoans(Pageable pageable) {
+        return loanRepository.findOverdueLoans(pageable).map(this::toLoanDTO);
+    }
 
-        // Check if user has reached max loans
-        long activeLoansCount = loanRepository.countActiveLoansByUserId(userId);
-        if (activeLoansCount >= MAX_ACTIVE_LOANS) {
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#bookId")
+    public LoanDTO borrowBook(UUID userId, UUID bookId) {
+        // Take a loan slot with a guarded increment so concurrent borrows cannot pass the limit
+        if (userRepository.reserveLoanSlot(userId, MAX_ACTIVE_LOANS) == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found with id: " + userId);
+            }
             throw new RuntimeException("User has reached maximum number of active loans (" + MAX_ACTIVE_LOANS + ")");
         }
 
-        // Check if book is available
-        if (book.getStockQuantity() <= 0) {
+        // Collect the copy set aside for a ready hold, or reserve one with a conditional decrement so
+        // concurrent borrowers cannot oversell
+        if (holdRepository.fulfillReady(userId, bookId, LocalDateTime.now()) == 0 && bookRepository.decrementStock(bookId) == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new RuntimeException("Book not found with id: " + bookId);
+            }
             throw new RuntimeException("Book is not available for borrowing");
         }
 
         // Create loan
         Loan loan = new Loan();
-        loan.setUser(user);
-        loan.setBook(book);
+        loan.setUser(userRepository.getReferenceById(userId));
+        loan.setBook(bookRepository.getReferenceById(bookId));
         loan.setDueDate(LocalDate.now().plusDays(14));
         loan.setStatus("ACTIVE");
 
-        // Decrement stock
-        book.setStockQuantity(book.getStockQuantity() - 1);
-        bookRepository.save(book);
-
-        Loan savedLoan = loanRepository.save(loan);
+        // idx_loans_user_book_open allows one open loan per user and book; the rollback releases slot and copy
+        Loan savedLoan;
+        try {
+            savedLoan = loanRepository.saveAndFlush(loan);
+        } catch (DataIntegrityViolationException ex) {
+            throw new RuntimeException("User already has an active loan for this book");
+        }
+        eventPublisher.publishEvent(new BookBorrowedEvent(userId, bookId));
         return toLoanDTO(savedLoan);
     }
 
-    public LoanDTO returnBook(String loanId) {
-        Loan loan = loanRepository.findById(loanId)
+    public LoanDTO returnBook(UUID loanId) {
+        // Close the loan with a conditional update so a double submit cannot release two copies
+        if (loanRepository.markReturned(loanId, LocalDateTime.now()) == 0) {
+            if (!loanRepository.existsById(loanId)) {
+                throw new RuntimeException("Loan not found with id: " + loanId);
+            }
+            throw new RuntimeException("Book is already returned");
+        }
+
+        Loan loan = loanRepository.findWithUserAndBookById(loanId)
             .orElseThrow(() -> new RuntimeException("Loan not found with id: " + loanId));
 
-        if (!"ACTIVE".equals(loan.getStatus())) {
-            throw new RuntimeException("Book is already returned");
+        // The copy goes to the next hold on the book, or back to stock
+        holdService.allocateCopy(loan.getBook().getId());
+        userRepository.releaseLoanSlot(loan.getUser().getId());
+        evictCachedBook(loan.getBook().getId());
+
+        return toLoanDTO(loan);
+    }
+
+    public BatchLoanResultDTO borrowBooks(UUID userId, List<UUID> bookIds) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+
+        // One round-trip each for the books and the user's active loans, reused for every item
+        Map<UUID, Book> books = bookRepository.findAllById(bookIds).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Set<UUID> activeBookIds = new HashSet<>(loanRepository.findActiveBookIdsByUserId(userId));
+
+        List<BatchLoanItemDTO> items = new ArrayList<>();
+        List<Loan> loans = new ArrayList<>();
+        for (UUID bookId : bookIds) {
+            Book book = books.get(bookId);
+            if (book == null) {
+                items.add(failedItem(bookId, "Book not found with id: " + bookId));
+            } else if (activeBookIds.contains(bookId)) {
+                items.add(failedItem(bookId, "User already has an active loan for this book"));
+            } else if (userRepository.reserveLoanSlot(userId, MAX_ACTIVE_LOANS) == 0) {
+                items.add(failedItem(bookId, "User has reached maximum number of active loans (" + MAX_ACTIVE_LOANS + ")"));
+            } else if (holdRepository.fulfillReady(userId, bookId, LocalDateTime.now()) == 0 && bookRepository.decrementStock(bookId) == 0) {
+                userRepository.releaseLoanSlot(userId);
+                items.add(failedItem(bookId, "Book is not available for borrowing"));
+            } else {
+                Loan loan = new Loan();
+                loan.setUser(user);
+                loan.setBook(book);
+                loan.setDueDate(LocalDate.now().plusDays(14));
+                loan.setStatus("ACTIVE");
+                loans.add(loan);
+                activeBookIds.add(bookId);
+                items.add(new BatchLoanItemDTO(bookId, true, null, null));
+                evictCachedBook(bookId);
+            }
         }
 
-        // Return book
-        loan.setStatus("RETURNED");
-        loan.setReturnedAt(java.time.LocalDateTime.now());
+        // Inserted as JDBC batches, see hibernate.jdbc.batch_size. A concurrent borrow of the same book
+        // trips idx_loans_user_book_open and rolls back the whole batch
+        List<Loan> saved;
+        try {
+            saved = loanRepository.saveAllAndFlush(loans);
+        } catch (DataIntegrityViolationException ex) {
+            throw new RuntimeException("User already has an active loan for one of these books");
+        }
+        saved.forEach(loan -> eventPublisher.publishEvent(new BookBorrowedEvent(userId, loan.getBook().getId())));
+        Map<UUID, LoanDTO> savedLoans = saved.stream()
+            .collect(Collectors.toMap(loan -> loan.getBook().getId(), this::toLoanDTO));
+        items.stream()
+            .filter(BatchLoanItemDTO::isSuccess)
+            .forEach(item -> item.setLoan(savedLoans.get(item.getId())));
+        return toBatchResult(items);
+    }
 
-        // Increment stock
-        Book book = loan.getBook();
-        book.setStockQuantity(book.getStockQuantity() + 1);
-        bookRepository.save(book);
+    public BatchLoanResultDTO returnBooks(List<UUID> loanIds) {
+        Set<UUID> returnedIds = new HashSet<>();
+        for (UUID loanId : loanIds) {
+            if (loanRepository.markReturned(loanId, LocalDateTime.now()) > 0) {
+                returnedIds.add(loanId);
+            }
+        }
+
+        Map<UUID, Loan> loans = loanRepository.findAllWithUserAndBookByIdIn(loanIds).stream()
+            .collect(Collectors.toMap(Loan::getId, Function.identity()));
+
+        List<BatchLoanItemDTO> items = new ArrayList<>();
+        for (UUID loanId : loanIds) {
+            Loan loan = loans.get(loanId);
+            if (loan == null) {
+                items.add(failedItem(loanId, "Loan not found with id: " + loanId));
+            } else if (!returnedIds.remove(loanId)) {
+                items.add(failedItem(loanId, "Book is already returned"));
+            } else {
+                holdService.allocateCopy(loan.getBook().getId());
+                userRepository.releaseLoanSlot(loan.getUser().getId());
+                evictCachedBook(loan.getBook().getId());
+                items.add(new BatchLoanItemDTO(loanId, true, toLoanDTO(loan), null));
+            }
+        }
+        return toBatchResult(items);
+    }
 
-        Loan updatedLoan = loanRepository.save(loan);
-        return toLoanDTO(updatedLoan);
+    private KeysetCursor toCursor(Loan loan) {
+        return new KeysetCursor(loan.getBorrowedAt().toString(), loan.getId());
+    }
+
+    private LocalDateTime parseBorrowedAt(KeysetCursor cursor) {
+        try {
+            return LocalDateTime.parse(cursor.sortKey());
+        } catch (DateTimeParseException ex) {
+            throw new RuntimeException("Invalid pagination cursor");
+        }
+    }
+
+    private BatchLoanItemDTO failedItem(UUID id, String error) {
+        return new BatchLoanItemDTO(id, false, null, error);
+    }
+
+    private BatchLoanResultDTO toBatchResult(List<BatchLoanItemDTO> items) {
+        int succeeded = (int) items.stream().filter(BatchLoanItemDTO::isSuccess).count();
+        return new BatchLoanResultDTO(succeeded, items.size() - succeeded, items);
+    }
+
+    private void evictCachedBook(UUID bookId) {
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        if (books != null) {
+            books.evict(bookId);
+        }
     }
 
     private LoanDTO toLoanDTO(Loan loan) {
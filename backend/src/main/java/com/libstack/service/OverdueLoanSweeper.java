@@ -0,0 +1,35 @@
+package com.libstack.service;
+
+import com.libstack.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Component
+public class OverdueLoanSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueLoanSweeper.class);
+
+    private final LoanRepository loanRepository;
+
+    public OverdueLoanSweeper(LoanRepository loanRepository) {
+        this.loanRepository = loanRepository;
+    }
+
+    // Also runs once at startup so loans that fell due while the app was down are flagged immediately
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.loans.overdue-sweep-cron}")
+    @Transactional
+    public void sweep() {
+        int marked = loanRepository.markOverdue(LocalDate.now());
+        if (marked > 0) {
+            log.info("Marked {} loans as overdue", marked);
+        }
+    }
+}
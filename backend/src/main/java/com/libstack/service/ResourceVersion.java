@@ -0,0 +1,45 @@
+package com.libstack.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validators for a conditional GET: a weak ETag built from modification stamps and change counters,
+ * and the latest of those stamps as Last-Modified. Versions built from counters alone have no
+ * Last-Modified (0): a timestamp cannot tell that a row was deleted, so those are matched by ETag only.
+ */
+public record ResourceVersion(String etag, long lastModified) {
+
+    static Builder builder(String kind) {
+        return new Builder(kind);
+    }
+
+    static final class Builder {
+
+        private final StringBuilder tag;
+        private long lastModified;
+
+        private Builder(String kind) {
+            this.tag = new StringBuilder(kind);
+        }
+
+        Builder stamp(LocalDateTime updatedAt) {
+            long millis = updatedAt == null ? 0 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            lastModified = Math.max(lastModified, millis);
+            return part(millis);
+        }
+
+        Builder counter(long changes) {
+            return part(changes);
+        }
+
+        private Builder part(long value) {
+            tag.append('-').append(Long.toString(value, 36));
+            return this;
+        }
+
+        ResourceVersion build() {
+            return new ResourceVersion("W/\"" + tag + "\"", lastModified);
+        }
+    }
+}
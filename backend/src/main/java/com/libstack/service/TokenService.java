@@ -0,0 +1,58 @@
+package com.libstack.service;
+
+import com.libstack.config.JwtConfig;
+import com.libstack.config.MetricsConfig;
+import com.libstack.config.TokenVersions;
+import com.libstack.dto.LoginResponse;
+import com.libstack.dto.UserDTO;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Issues signed bearer tokens so API clients authenticate with an HMAC check
+ * instead of a BCrypt verification on every request.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class TokenService {
+
+    private static final String ISSUER = "libstack";
+
+    private final JwtEncoder jwtEncoder;
+    private final TokenVersions tokenVersions;
+    private final Duration ttl;
+
+    public TokenService(JwtEncoder jwtEncoder, TokenVersions tokenVersions,
+                        @Value("${app.security.jwt.ttl}") Duration ttl) {
+        this.jwtEncoder = jwtEncoder;
+        this.tokenVersions = tokenVersions;
+        this.ttl = ttl;
+    }
+
+    public LoginResponse issueToken(UserDTO user) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .issuedAt(now)
+                .expiresAt(expiresAt)
+                .subject(user.getEmail())
+                .claim(JwtConfig.USER_ID_CLAIM, user.getId().toString())
+                .claim(JwtConfig.ROLES_CLAIM, List.of(user.getRole()))
+                .claim(JwtConfig.TOKEN_VERSION_CLAIM, tokenVersions.current(user.getId()))
+                .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        return new LoginResponse(token, "Bearer", expiresAt, user);
+    }
+}
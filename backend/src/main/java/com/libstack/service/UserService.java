@@ -1,25 +1,40 @@
 package com.libstack.service;
 
+import com.libstack.config.CachingAuthenticationProvider;
+import com.libstack.config.MetricsConfig;
+import com.libstack.config.TokenVersions;
 import com.libstack.dto.UserDTO;
 import com.libstack.model.User;
 import com.libstack.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class UserService {
 
     private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final CachingAuthenticationProvider authenticationProvider;
+    private final TokenVersions tokenVersions;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       CachingAuthenticationProvider authenticationProvider, TokenVersions tokenVersions) {
         this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.authenticationProvider = authenticationProvider;
+        this.tokenVersions = tokenVersions;
     }
 
-    public UserDTO getUserById(String id) {
+    @Transactional(readOnly = true)
+    public UserDTO getUserById(UUID id) {
         return userRepository.findById(id)
             .map(this::toUserDTO)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -31,26 +46,32 @@ public class UserService {
             .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
 
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
         return userRepository.findAll().stream()
             .map(this::toUserDTO)
             .collect(Collectors.toList());
     }
 
-    public UserDTO updateUserRole(String id, String role) {
+    public UserDTO updateUserRole(UUID id, String role) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         
         user.setRole(role);
         User updatedUser = userRepository.save(user);
+        // Tokens issued before carry the old role
+        userRepository.incrementTokenVersion(id);
+        authenticationProvider.evict(user.getEmail());
+        tokenVersions.evict(id);
         return toUserDTO(updatedUser);
     }
 
-    public void deleteUser(String id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with id: " + id);
-        }
-        userRepository.deleteById(id);
+    public void deleteUser(UUID id) {
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        userRepository.delete(user);
+        authenticationProvider.evict(user.getEmail());
+        tokenVersions.evict(id);
     }
 
     public boolean existsByEmail(String email) {
@@ -64,7 +85,7 @@ public class UserService {
         User user = new User();
         user.setEmail(request.getEmail());
         user.setName(request.getName());
-        user.setPassword(new org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder().encode(request.getPassword()));
+        user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setRole("USER");
         user.setProvider("LOCAL");
         return toUserDTO(userRepository.save(user));
@@ -78,7 +99,7 @@ public class UserService {
              throw new RuntimeException("Please login with " + user.getProvider());
         }
             
-        if (!new org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder().matches(request.getPassword(), user.getPassword())) {
+        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
         return toUserDTO(user);
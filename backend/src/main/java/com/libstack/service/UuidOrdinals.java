@@ -0,0 +1,78 @@
+package com.libstack.service;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Numbers UUIDs 0, 1, 2, ... in the order they are first seen, so models can index plain arrays by
+ * book or user. Open addressing over a long array of (msb, lsb) pairs, 24 to 48 bytes per id. Ordinals
+ * are never reused. Thread-safe.
+ */
+final class UuidOrdinals {
+
+    private static final int EMPTY = -1;
+
+    private long[] ids = new long[2 * 16];
+    private int[] slots = new int[32];
+    private int size;
+
+    UuidOrdinals() {
+        Arrays.fill(slots, EMPTY);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /** The id's ordinal, or -1 if it has none. */
+    synchronized int get(UUID id) {
+        return slots[find(slots, id.getMostSignificantBits(), id.getLeastSignificantBits())];
+    }
+
+    /** The id's ordinal, assigning the next one if it is new. */
+    synchronized int add(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int slot = find(slots, msb, lsb);
+        if (slots[slot] != EMPTY) {
+            return slots[slot];
+        }
+        if (2 * size == ids.length) {
+            ids = Arrays.copyOf(ids, 4 * size);
+        }
+        int ordinal = size++;
+        ids[2 * ordinal] = msb;
+        ids[2 * ordinal + 1] = lsb;
+        slots[slot] = ordinal;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return ordinal;
+    }
+
+    synchronized UUID id(int ordinal) {
+        return new UUID(ids[2 * ordinal], ids[2 * ordinal + 1]);
+    }
+
+    synchronized long footprintBytes() {
+        return 8L * ids.length + 4L * slots.length;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            slots[find(slots, ids[2 * ordinal], ids[2 * ordinal + 1])] = ordinal;
+        }
+    }
+
+    private int find(int[] table, long msb, long lsb) {
+        int mask = table.length - 1;
+        long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash >>> 32) & mask;
+        while (table[slot] != EMPTY && (ids[2 * table[slot]] != msb || ids[2 * table[slot] + 1] != lsb)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
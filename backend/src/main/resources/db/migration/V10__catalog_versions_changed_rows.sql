@@ -0,0 +1,47 @@
+-- The V8 triggers fired once per statement whether or not it touched a row, so a refused stock decrement
+-- or a conditional update that lost its race still bumped the version and invalidated every cached page.
+-- Each event now has its own trigger whose transition table holds the rows the statement changed, and the
+-- version is only bumped when there are any. TRUNCATE has no transition table and always bumps.
+CREATE OR REPLACE FUNCTION bump_catalog_version() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP <> 'TRUNCATE' THEN
+        -- Nested so that changed_rows is only resolved when the trigger declares it
+        IF NOT EXISTS (SELECT 1 FROM changed_rows) THEN
+            RETURN NULL;
+        END IF;
+    END IF;
+    UPDATE catalog_versions SET version = version + 1
+    WHERE table_name = TG_TABLE_NAME AND slot = pg_backend_pid() % 16;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER books_catalog_version ON books;
+DROP TRIGGER categories_catalog_version ON categories;
+
+CREATE TRIGGER books_catalog_version_insert
+    AFTER INSERT ON books REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+CREATE TRIGGER books_catalog_version_update
+    AFTER UPDATE ON books REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+CREATE TRIGGER books_catalog_version_delete
+    AFTER DELETE ON books REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+CREATE TRIGGER books_catalog_version_truncate
+    AFTER TRUNCATE ON books
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+
+CREATE TRIGGER categories_catalog_version_insert
+    AFTER INSERT ON categories REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+CREATE TRIGGER categories_catalog_version_update
+    AFTER UPDATE ON categories REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+CREATE TRIGGER categories_catalog_version_delete
+    AFTER DELETE ON categories REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+CREATE TRIGGER categories_catalog_version_truncate
+    AFTER TRUNCATE ON categories
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
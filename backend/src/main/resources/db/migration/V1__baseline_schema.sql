@@ -0,0 +1,45 @@
+-- Tables exactly as ddl-auto: update created them. Existing databases are baselined at this
+-- version and start from V2, so anything beyond these tables belongs in a later migration.
+
+CREATE TABLE categories (
+    id          VARCHAR(255) NOT NULL PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL UNIQUE,
+    description VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE books (
+    id             VARCHAR(255) NOT NULL PRIMARY KEY,
+    title          VARCHAR(255) NOT NULL,
+    author         VARCHAR(255) NOT NULL,
+    isbn           VARCHAR(255) UNIQUE,
+    description    VARCHAR(255),
+    cover_url      VARCHAR(255),
+    stock_quantity INTEGER      NOT NULL,
+    category_id    VARCHAR(255) REFERENCES categories (id),
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6)
+);
+
+CREATE TABLE users (
+    id          VARCHAR(255) NOT NULL PRIMARY KEY,
+    email       VARCHAR(255) NOT NULL UNIQUE,
+    name        VARCHAR(255) NOT NULL,
+    password    VARCHAR(255),
+    provider    VARCHAR(255),
+    provider_id VARCHAR(255),
+    role        VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE loans (
+    id          VARCHAR(255) NOT NULL PRIMARY KEY,
+    user_id     VARCHAR(255) NOT NULL REFERENCES users (id),
+    book_id     VARCHAR(255) NOT NULL REFERENCES books (id),
+    borrowed_at TIMESTAMP(6) NOT NULL,
+    due_date    DATE         NOT NULL,
+    returned_at TIMESTAMP(6),
+    status      VARCHAR(255) NOT NULL
+);
@@ -0,0 +1,16 @@
+-- Indexes for repository lookups that previously scanned. IF NOT EXISTS keeps this safe on
+-- databases baselined from ddl-auto, which may already have some of them.
+
+-- BookRepository.findByCategoryId, and the foreign key check when a category is deleted
+CREATE INDEX IF NOT EXISTS idx_books_category_id ON books (category_id);
+
+-- LoanRepository.findActiveLoansByBookId, and the foreign key check when a book is deleted
+CREATE INDEX IF NOT EXISTS idx_loans_book_id ON loans (book_id);
+
+-- Open-loan checks by user: countActiveLoansByUserId, findActiveBookIdsByUserId and
+-- existsActiveLoan are answered from this index alone
+CREATE INDEX IF NOT EXISTS idx_loans_user_book_open ON loans (user_id, book_id)
+    WHERE status IN ('ACTIVE', 'OVERDUE');
+
+-- UserRepository.findByProviderAndProviderId on every OAuth2 login
+CREATE INDEX IF NOT EXISTS idx_users_provider_provider_id ON users (provider, provider_id);
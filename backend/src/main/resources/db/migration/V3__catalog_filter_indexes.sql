@@ -0,0 +1,7 @@
+-- Criteria of the combined catalog filter, see BookSpecifications.matching
+
+-- Case-insensitive author match: lower(author) = ?
+CREATE INDEX IF NOT EXISTS idx_books_author_lower ON books (lower(author));
+
+-- Added-date ranges: created_at >= ? AND created_at < ?
+CREATE INDEX IF NOT EXISTS idx_books_created_at ON books (created_at);
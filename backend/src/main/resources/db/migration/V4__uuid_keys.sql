@@ -0,0 +1,41 @@
+-- Native uuid keys: 16 bytes instead of a 37-byte varchar in every primary key, foreign key and
+-- index that contains one. Existing ids are UUID strings and convert in place; new rows get
+-- time-ordered UUIDv7 ids from UuidV7Generator.
+--
+-- Each ALTER rewrites its table and rebuilds its indexes under an ACCESS EXCLUSIVE lock, so run
+-- this in a maintenance window on a large catalog.
+
+-- Foreign keys are looked up rather than named: databases baselined from ddl-auto carry
+-- Hibernate-generated constraint names
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN
+        SELECT conrelid::regclass AS table_name, conname
+        FROM pg_constraint
+        WHERE contype = 'f'
+          AND conrelid IN ('books'::regclass, 'loans'::regclass)
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE categories
+    ALTER COLUMN id TYPE uuid USING id::uuid;
+
+ALTER TABLE books
+    ALTER COLUMN id TYPE uuid USING id::uuid,
+    ALTER COLUMN category_id TYPE uuid USING category_id::uuid;
+
+ALTER TABLE users
+    ALTER COLUMN id TYPE uuid USING id::uuid;
+
+ALTER TABLE loans
+    ALTER COLUMN id TYPE uuid USING id::uuid,
+    ALTER COLUMN user_id TYPE uuid USING user_id::uuid,
+    ALTER COLUMN book_id TYPE uuid USING book_id::uuid;
+
+ALTER TABLE books ADD CONSTRAINT fk_books_category FOREIGN KEY (category_id) REFERENCES categories (id);
+ALTER TABLE loans ADD CONSTRAINT fk_loans_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE loans ADD CONSTRAINT fk_loans_book FOREIGN KEY (book_id) REFERENCES books (id);
@@ -0,0 +1,18 @@
+-- Open loans per user, kept in step by LoanService: a guarded increment on borrow enforces the
+-- loan limit in one statement, a decrement on return releases the slot. LoanCounterReconciler
+-- repairs any drift.
+ALTER TABLE users ADD COLUMN active_loan_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE users u
+SET active_loan_count = open.loans
+FROM (SELECT user_id, COUNT(*) AS loans
+      FROM loans
+      WHERE status IN ('ACTIVE', 'OVERDUE')
+      GROUP BY user_id) open
+WHERE open.user_id = u.id;
+
+-- One open loan per user and book, enforced by the insert instead of a check before it. Fails if
+-- concurrent borrows already produced duplicates; return the extra loans and rerun.
+DROP INDEX IF EXISTS idx_loans_user_book_open;
+CREATE UNIQUE INDEX idx_loans_user_book_open ON loans (user_id, book_id)
+    WHERE status IN ('ACTIVE', 'OVERDUE');
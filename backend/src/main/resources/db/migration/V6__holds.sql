@@ -0,0 +1,23 @@
+-- Waitlist for out-of-stock books. A returned copy goes to the head of the book's queue (READY,
+-- set aside until expires_at) instead of back into stock; HoldExpirySweeper expires uncollected
+-- copies and passes them on.
+CREATE TABLE holds (
+    id         uuid         NOT NULL PRIMARY KEY,
+    user_id    uuid         NOT NULL CONSTRAINT fk_holds_user REFERENCES users (id),
+    book_id    uuid         NOT NULL CONSTRAINT fk_holds_book REFERENCES books (id),
+    status     VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    ready_at   TIMESTAMP(6),
+    expires_at TIMESTAMP(6)
+);
+
+-- Head of each book's queue, and the position count, from the waiting holds only
+CREATE INDEX idx_holds_book_queue ON holds (book_id, created_at, id) WHERE status = 'WAITING';
+
+-- One open hold per user and book; also serves the pickup on borrow
+CREATE UNIQUE INDEX idx_holds_user_book_open ON holds (user_id, book_id) WHERE status IN ('WAITING', 'READY');
+
+-- Expiry sweep over the few copies currently set aside
+CREATE INDEX idx_holds_ready_expires_at ON holds (expires_at) WHERE status = 'READY';
+
+CREATE INDEX idx_holds_user_created_at ON holds (user_id, created_at);
@@ -0,0 +1,3 @@
+-- Carried in every bearer token and checked when one is decoded. A role change or account deletion
+-- bumps it (or removes the row), which revokes the tokens issued before.
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
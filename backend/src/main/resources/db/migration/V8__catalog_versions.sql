@@ -0,0 +1,31 @@
+-- Change counters behind the catalog ETags, read in O(1) instead of scanning books and categories.
+-- A statement-level trigger bumps one of 16 slots per table for every write, whatever issued it: JPA,
+-- the native stock updates or the JDBC import. The slot follows the backend process, so concurrent
+-- writers on different connections rarely wait for each other's row lock. Readers add the slots up;
+-- a bump only becomes visible when its transaction commits.
+CREATE TABLE catalog_versions (
+    table_name TEXT     NOT NULL,
+    slot       SMALLINT NOT NULL,
+    version    BIGINT   NOT NULL DEFAULT 0,
+    PRIMARY KEY (table_name, slot)
+);
+
+INSERT INTO catalog_versions (table_name, slot)
+SELECT t, s FROM unnest(ARRAY['books', 'categories']) t, generate_series(0, 15) s;
+
+CREATE FUNCTION bump_catalog_version() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE catalog_versions SET version = version + 1
+    WHERE table_name = TG_TABLE_NAME AND slot = pg_backend_pid() % 16;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER books_catalog_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON books
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+
+CREATE TRIGGER categories_catalog_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON categories
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
@@ -0,0 +1,19 @@
+-- Columns and indexes that DatabaseIndexInitializer and the @Index annotations used to create at
+-- startup. Databases baselined from ddl-auto may have any subset of them, hence IF NOT EXISTS.
+
+-- Full-text catalog search, see BookSpecifications.matching. PostgreSQL keeps the generated
+-- column in sync on every insert and update, so the application never writes it.
+ALTER TABLE books ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    to_tsvector('simple', coalesce(title, '') || ' ' || coalesce(author, '') || ' ' ||
+                replace(coalesce(isbn, ''), '-', ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_books_search ON books USING gin (search_vector);
+
+-- Keyset pagination and conditional GET validators
+CREATE INDEX IF NOT EXISTS idx_books_title_id ON books (title, id);
+CREATE INDEX IF NOT EXISTS idx_books_updated_at ON books (updated_at);
+CREATE INDEX IF NOT EXISTS idx_loans_borrowed_at_id ON loans (borrowed_at, id);
+CREATE INDEX IF NOT EXISTS idx_loans_user_borrowed_at_id ON loans (user_id, borrowed_at, id);
+
+-- Overdue sweep and overdue listings, see LoanRepository.markOverdue and findOverdueLoans
+CREATE INDEX IF NOT EXISTS idx_loans_active_due_date ON loans (due_date) WHERE status = 'ACTIVE';
+CREATE INDEX IF NOT EXISTS idx_loans_overdue_due_date ON loans (due_date, id) WHERE status = 'OVERDUE';
@@ -0,0 +1,136 @@
+package com.libstack.benchmark;
+
+import com.libstack.config.CachingAuthenticationProvider;
+import com.libstack.dto.LoginRequest;
+import com.libstack.dto.LoginResponse;
+import com.libstack.model.User;
+import com.libstack.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives authenticated requests at /api/v1/auth/user over HTTP and reports requests/sec per core for
+ * basic auth with BCrypt on every request (the previous behaviour), basic auth through the verified
+ * credential cache, and bearer tokens issued by /api/v1/auth/login.
+ * Run with: mvn test -Pbenchmark -Dtest=AuthThroughputBenchmarkTests -Dbenchmark.requests=2000
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Tag("benchmark")
+class AuthThroughputBenchmarkTests {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 300);
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final String EMAIL = "bench-auth@example.com";
+    private static final String PASSWORD = "benchmark-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CachingAuthenticationProvider authenticationProvider;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void compareAuthenticationModes() throws Exception {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setName("Benchmark Client");
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setProvider("LOCAL");
+        user.setRole("USER");
+        userRepository.save(user);
+
+        String basic = "Basic " + Base64.getEncoder()
+                .encodeToString((EMAIL + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+        LoginRequest login = new LoginRequest();
+        login.setEmail(EMAIL);
+        login.setPassword(PASSWORD);
+        LoginResponse token = restTemplate.postForObject("/api/v1/auth/login", login, LoginResponse.class);
+        String bearer = "Bearer " + token.getToken();
+
+        // Evicting before every call reproduces the old cost of one BCrypt verification per request
+        report("basic, bcrypt per request", run(basic, () -> authenticationProvider.evict(EMAIL)));
+        report("basic, cached credential", run(basic, () -> { }));
+        report("bearer token", run(bearer, () -> { }));
+    }
+
+    private double run(String authorization, Runnable beforeRequest) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/auth/user"))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+
+        // Warm up the JIT and connection pool before timing
+        for (int i = 0; i < 20; i++) {
+            beforeRequest.run();
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CORES * 2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    beforeRequest.run();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            assertEquals(0, failures.get());
+            return REQUESTS / seconds;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void report(String label, double requestsPerSecond) {
+        System.out.printf("%-26s requests=%d cores=%d throughput=%.0f req/s per-core=%.0f req/s%n",
+                label, REQUESTS, CORES, requestsPerSecond, requestsPerSecond / CORES);
+    }
+}
@@ -0,0 +1,116 @@
+package com.libstack.benchmark;
+
+import com.libstack.dto.BookImportResultDTO;
+import com.libstack.model.Category;
+import com.libstack.repository.CategoryRepository;
+import com.libstack.service.BookImportService;
+import com.libstack.service.DataFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Streams a synthetic CSV file through the bulk import without materializing it.
+ * Every 1000th row repeats the previous ISBN and every 5000th row has no author.
+ * Run with: mvn test -Pbenchmark -Dtest=BookImportBenchmarkTests -Dbenchmark.rows=1000000
+ */
+@SpringBootTest
+@Tag("benchmark")
+class BookImportBenchmarkTests {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final String CATEGORY = "Benchmark Imports";
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DELETE FROM books WHERE isbn LIKE 'IMPORT-%'");
+        categoryRepository.findByName(CATEGORY).ifPresent(categoryRepository::delete);
+    }
+
+    @Test
+    void importSyntheticCatalog() {
+        Category category = new Category();
+        category.setName(CATEGORY);
+        categoryRepository.save(category);
+
+        long start = System.nanoTime();
+        BookImportResultDTO result = bookImportService.importBooks(new SyntheticCsv(ROWS), DataFormat.CSV);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("csv-import rows=%d imported=%d skipped=%d failed=%d elapsed=%.2fs throughput=%.0f rows/sec%n",
+                result.getProcessed(), result.getImported(), result.getSkipped(), result.getFailed(), seconds,
+                result.getProcessed() / seconds);
+
+        long failed = ROWS / 5000;
+        long skipped = ROWS / 1000 - ROWS / 5000;
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(ROWS, result.getProcessed());
+        assertEquals(failed, result.getFailed());
+        assertEquals(skipped, result.getSkipped());
+        assertEquals(ROWS - failed - skipped, result.getImported());
+    }
+
+    private static class SyntheticCsv extends InputStream {
+
+        private final int rows;
+        private int row = -1;
+        private byte[] line = "title,author,isbn,description,coverUrl,stockQuantity,category\n"
+                .getBytes(StandardCharsets.UTF_8);
+        private int position;
+
+        SyntheticCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length && !nextLine()) {
+                return -1;
+            }
+            return line[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position == line.length && !nextLine()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean nextLine() {
+            row++;
+            if (row >= rows) {
+                return false;
+            }
+            int number = row + 1;
+            String author = number % 5000 == 0 ? "" : "Author " + (number % 977);
+            int isbn = number % 1000 == 0 ? number - 1 : number;
+            line = ("\"Imported Title " + number + "\"," + author + ",IMPORT-" + isbn +
+                    ",\"Synthetic description, row " + number + "\",,3," + CATEGORY + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.libstack.benchmark;
+
+import com.libstack.dto.BookDTO;
+import com.libstack.model.UuidV7Generator;
+import com.libstack.repository.BookFilter;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.BookSpecifications;
+import com.libstack.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the ranked full-text search against the previous LIKE '%q%' scan.
+ * Run with: mvn test -Pbenchmark -Dtest=BookSearchBenchmarkTests -Dbenchmark.books=1000000
+ */
+@SpringBootTest
+@Tag("benchmark")
+class BookSearchBenchmarkTests {
+
+    private static final int BOOKS = Integer.getInteger("benchmark.books", 200_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 200);
+    private static final String[] WORDS = generateWords(5_000);
+    // The scan search used before the full-text index, first page only
+    private static final String PATTERN_SQL = "SELECT * FROM books WHERE " +
+            "LOWER(title) LIKE '%' || LOWER(?) || '%' OR LOWER(author) LIKE '%' || LOWER(?) || '%' " +
+            "OR LOWER(isbn) LIKE '%' || LOWER(?) || '%' LIMIT 12";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DELETE FROM books WHERE isbn LIKE 'BENCH-%'");
+    }
+
+    @Test
+    void compareSearchStrategies() {
+        seedBooks();
+
+        Random random = new Random(7);
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        PageRequest firstPage = PageRequest.of(0, 12);
+
+        long[] pattern = measure(queries, q -> jdbcTemplate.queryForList(PATTERN_SQL, q, q, q));
+        long[] ranked = measure(queries, q -> {
+            BookFilter filter = BookFilter.search(q);
+            bookRepository.findAll(BookSpecifications.matching(filter), BookSpecifications.stablePage(filter, firstPage));
+        });
+
+        report("LIKE '%q%' scan", pattern);
+        report("full-text index", ranked);
+
+        String word = WORDS[0];
+        Page<BookDTO> hits = bookService.searchBooks(word.toUpperCase(), firstPage);
+        assertTrue(hits.getTotalElements() > 0);
+        assertTrue(hits.getContent().stream().allMatch(book ->
+                (book.getTitle() + " " + book.getAuthor()).toLowerCase().contains(word)));
+    }
+
+    private static String[] generateWords(int count) {
+        Random random = new Random(1);
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private void seedBooks() {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String author = "Author " + random.nextInt(BOOKS / 10 + 1);
+            batch.add(new Object[]{UuidV7Generator.next(), title, author, "BENCH-" + i, 1, now, now});
+            if (batch.size() == 5_000) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+        jdbcTemplate.execute("ANALYZE books");
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO books (id, title, author, isbn, stock_quantity, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+    }
+
+    private long[] measure(List<String> queries, Consumer<String> search) {
+        // Warm up plans and connection before timing
+        queries.stream().limit(20).forEach(search);
+
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            search.accept(queries.get(i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private void report(String label, long[] sortedNanos) {
+        double mean = Arrays.stream(sortedNanos).average().orElse(0) / 1_000_000.0;
+        double p50 = sortedNanos[sortedNanos.length / 2] / 1_000_000.0;
+        double p99 = sortedNanos[(int) (sortedNanos.length * 0.99)] / 1_000_000.0;
+        System.out.printf("%-18s books=%d queries=%d mean=%.2fms p50=%.2fms p99=%.2fms%n",
+                label, BOOKS, sortedNanos.length, mean, p50, p99);
+    }
+}
@@ -0,0 +1,166 @@
+package com.libstack.benchmark;
+
+import com.libstack.dto.BookSuggestionDTO;
+import com.libstack.model.UuidV7Generator;
+import com.libstack.service.BookService;
+import com.libstack.service.BookSuggestIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Builds the typeahead index over a seeded catalog and reports its size and build time, then times
+ * suggest() for 1-6 character prefixes against the full-text catalog search a client would otherwise call
+ * on each keystroke.
+ * Run with: mvn test -Pbenchmark -Dtest=BookSuggestBenchmarkTests -Dbenchmark.books=1000000
+ */
+@SpringBootTest
+@Tag("benchmark")
+class BookSuggestBenchmarkTests {
+
+    private static final int BOOKS = Integer.getInteger("benchmark.books", 200_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 100_000);
+    private static final int DATABASE_QUERIES = 200;
+    private static final String[] WORDS = generateWords(5_000);
+
+    @Autowired
+    private BookSuggestIndex bookSuggestIndex;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DELETE FROM loans WHERE user_id IN " +
+                "(SELECT id FROM users WHERE email = 'bench-suggest@example.com')");
+        jdbcTemplate.execute("DELETE FROM users WHERE email = 'bench-suggest@example.com'");
+        jdbcTemplate.execute("DELETE FROM books WHERE isbn LIKE 'BENCH-%'");
+        bookSuggestIndex.rebuild();
+    }
+
+    @Test
+    void suggestFromMemory() {
+        seedCatalog();
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        bookSuggestIndex.rebuild();
+        double buildSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        double indexBytes = meterRegistry.get("library.suggest.index.size").gauge().value();
+        System.out.printf("suggest index      books=%d build=%.1fs arrays=%dMB heap delta=%dMB%n",
+                BOOKS, buildSeconds, (long) indexBytes >> 20, (heapAfter - heapBefore) >> 20);
+
+        Random random = new Random(7);
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            prefixes.add(word.substring(0, 1 + random.nextInt(Math.min(word.length(), 6))));
+        }
+
+        report("suggest (memory)", measure(prefixes, prefix -> bookSuggestIndex.suggest(prefix, 10)));
+        report("full-text search", measure(prefixes.subList(0, DATABASE_QUERIES),
+                prefix -> bookService.searchBooks(prefix, PageRequest.of(0, 10))));
+
+        String prefix = WORDS[0].substring(0, 3);
+        List<BookSuggestionDTO> suggestions = bookSuggestIndex.suggest(prefix.toUpperCase(), 10);
+        assertFalse(suggestions.isEmpty());
+        // Any word of the title or author may start the match
+        assertTrue(suggestions.stream().allMatch(book -> (" " + book.getTitle()).contains(" " + prefix)
+                || (" " + book.getAuthor().toLowerCase()).contains(" " + prefix)));
+    }
+
+    private static String[] generateWords(int count) {
+        Random random = new Random(1);
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private void seedCatalog() {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String author = "Author " + random.nextInt(BOOKS / 10 + 1);
+            batch.add(new Object[]{UuidV7Generator.next(), title, author, "BENCH-" + i, 1, now, now});
+            if (batch.size() == 5_000) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+
+        // Returned loans give the books uneven popularity for the ranking to work on
+        UUID userId = UuidV7Generator.next();
+        jdbcTemplate.update("INSERT INTO users (id, email, name, role, created_at, updated_at) " +
+                "VALUES (?, 'bench-suggest@example.com', 'Bench Suggest', 'USER', ?, ?)", userId, now, now);
+        jdbcTemplate.update("INSERT INTO loans (id, user_id, book_id, borrowed_at, due_date, returned_at, status) " +
+                "SELECT gen_random_uuid(), ?, b.id, now(), current_date, now(), 'RETURNED' " +
+                "FROM books b, generate_series(1, abs(hashtext(b.id::text)) % 4) " +
+                "WHERE b.isbn LIKE 'BENCH-%'", userId);
+        jdbcTemplate.execute("ANALYZE books, loans");
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO books (id, title, author, isbn, stock_quantity, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+    }
+
+    private long[] measure(List<String> queries, Consumer<String> search) {
+        // Warm up before timing
+        queries.stream().limit(1_000).forEach(search);
+
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            search.accept(queries.get(i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private void report(String label, long[] sortedNanos) {
+        double mean = Arrays.stream(sortedNanos).average().orElse(0) / 1_000.0;
+        double p50 = sortedNanos[sortedNanos.length / 2] / 1_000.0;
+        double p99 = sortedNanos[(int) (sortedNanos.length * 0.99)] / 1_000.0;
+        System.out.printf("%-18s books=%d queries=%d mean=%.1fus p50=%.1fus p99=%.1fus%n",
+                label, BOOKS, sortedNanos.length, mean, p50, p99);
+    }
+}
@@ -0,0 +1,101 @@
+package com.libstack.benchmark;
+
+import com.libstack.model.Book;
+import com.libstack.model.UuidV7Generator;
+import com.libstack.repository.BookRepository;
+import com.libstack.service.LoanService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures borrows/sec against a single hot book. Every borrow needs its own user because
+ * a user can hold only one active loan per title.
+ * Run with: mvn test -Pbenchmark -Dtest=BorrowThroughputBenchmarkTests -Dbenchmark.borrows=20000
+ */
+@SpringBootTest
+@Tag("benchmark")
+class BorrowThroughputBenchmarkTests {
+
+    private static final int BORROWS = Integer.getInteger("benchmark.borrows", 5_000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 16);
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID bookId;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM loans WHERE book_id = ?", bookId);
+        jdbcTemplate.update("DELETE FROM books WHERE id = ?", bookId);
+        jdbcTemplate.execute("DELETE FROM users WHERE email LIKE 'bench-borrower-%'");
+    }
+
+    @Test
+    void borrowsPerSecondOnHotBook() throws InterruptedException {
+        Book book = new Book();
+        book.setTitle("Benchmark Bestseller");
+        book.setAuthor("Benchmark Author");
+        book.setStockQuantity(BORROWS);
+        bookId = bookRepository.save(book).getId();
+        List<UUID> userIds = seedUsers();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        for (UUID userId : userIds) {
+            executor.submit(() -> {
+                try {
+                    loanService.borrowBook(userId, bookId);
+                } catch (RuntimeException ex) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("hot-book borrows=%d threads=%d elapsed=%.2fs throughput=%.0f borrows/sec%n",
+                BORROWS, THREADS, seconds, BORROWS / seconds);
+        assertEquals(0, failed.get());
+        assertEquals(0, bookRepository.findById(bookId).orElseThrow().getStockQuantity());
+    }
+
+    private List<UUID> seedUsers() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<UUID> ids = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < BORROWS; i++) {
+            UUID id = UuidV7Generator.next();
+            ids.add(id);
+            rows.add(new Object[]{id, "bench-borrower-" + i + "@example.com", "Borrower " + i, "USER", now, now});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (id, email, name, role, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)", rows);
+        return ids;
+    }
+}
@@ -0,0 +1,106 @@
+package com.libstack.benchmark;
+
+import com.libstack.model.UuidV7Generator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts the same loan workload into scratch copies of the loans table keyed three ways: varchar holding
+ * random UUIDs (the previous schema), native uuid with random v4 values, and native uuid with UUIDv7.
+ * Reports insert throughput and the heap, primary key and total index sizes of each.
+ * Run with: mvn test -Pbenchmark -Dtest=LoanKeyBenchmarkTests -Dbenchmark.loans=10000000
+ */
+@SpringBootTest
+@Tag("benchmark")
+class LoanKeyBenchmarkTests {
+
+    private static final int LOANS = Integer.getInteger("benchmark.loans", 200_000);
+    private static final int USERS = 10_000;
+    private static final int BOOKS = 100_000;
+    private static final int BATCH = 5_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        for (String table : List.of("bench_loans_varchar", "bench_loans_uuid_v4", "bench_loans_uuid_v7")) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+    }
+
+    @Test
+    void compareKeyTypes() {
+        run("bench_loans_varchar", "VARCHAR(255)", () -> UUID.randomUUID().toString());
+        run("bench_loans_uuid_v4", "uuid", UUID::randomUUID);
+        run("bench_loans_uuid_v7", "uuid", UuidV7Generator::next);
+    }
+
+    private void run(String table, String keyType, Supplier<Object> keys) {
+        jdbcTemplate.execute("CREATE TABLE " + table + " (" +
+                "id " + keyType + " NOT NULL PRIMARY KEY, " +
+                "user_id " + keyType + " NOT NULL, " +
+                "book_id " + keyType + " NOT NULL, " +
+                "borrowed_at TIMESTAMP(6) NOT NULL, " +
+                "due_date DATE NOT NULL, " +
+                "status VARCHAR(255) NOT NULL)");
+        // Same secondary indexes as loans, so every insert pays for the key in each of them
+        jdbcTemplate.execute("CREATE INDEX ON " + table + " (user_id, borrowed_at, id)");
+        jdbcTemplate.execute("CREATE INDEX ON " + table + " (book_id)");
+
+        Object[] users = pool(USERS, keys);
+        Object[] books = pool(BOOKS, keys);
+        Random random = new Random(11);
+        String insert = "INSERT INTO " + table + " (id, user_id, book_id, borrowed_at, due_date, status) " +
+                "VALUES (?, ?, ?, ?, ?, 'ACTIVE')";
+
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < LOANS; i++) {
+            LocalDateTime borrowedAt = LocalDateTime.now();
+            batch.add(new Object[]{keys.get(), users[random.nextInt(USERS)], books[random.nextInt(BOOKS)],
+                    Timestamp.valueOf(borrowedAt), Date.valueOf(LocalDate.now().plusDays(14))});
+            if (batch.size() == BATCH) {
+                jdbcTemplate.batchUpdate(insert, batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(insert, batch);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertEquals(LOANS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class));
+        long heap = size("pg_relation_size('" + table + "')");
+        long primaryKey = size("pg_relation_size('" + table + "_pkey')");
+        long indexes = size("pg_indexes_size('" + table + "')");
+        System.out.printf("%-22s loans=%d elapsed=%.1fs throughput=%.0f rows/s heap=%dMB pkey=%dMB indexes=%dMB%n",
+                table, LOANS, seconds, LOANS / seconds, heap >> 20, primaryKey >> 20, indexes >> 20);
+    }
+
+    private static Object[] pool(int size, Supplier<Object> keys) {
+        Object[] pool = new Object[size];
+        for (int i = 0; i < size; i++) {
+            pool[i] = keys.get();
+        }
+        return pool;
+    }
+
+    private long size(String expression) {
+        return jdbcTemplate.queryForObject("SELECT " + expression, Long.class);
+    }
+}
@@ -0,0 +1,173 @@
+package com.libstack.benchmark;
+
+import com.libstack.dto.BookDTO;
+import com.libstack.service.BookBorrowedEvent;
+import com.libstack.service.RecommendationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Seeds a loan history where readers favour one shelf of the catalog, then reports the co-borrowing model's
+ * build time and size, how fast it absorbs new loans, and related/recommendation latency, from the model
+ * alone and with the books loaded, against the loans self-join it replaces.
+ * Run with: mvn test -Pbenchmark -Dtest=RecommendationBenchmarkTests -Dbenchmark.loans=5000000
+ */
+@SpringBootTest
+@Tag("benchmark")
+class RecommendationBenchmarkTests {
+
+    private static final int LOANS = Integer.getInteger("benchmark.loans", 1_000_000);
+    private static final int USERS = Integer.getInteger("benchmark.users", LOANS / 20);
+    private static final int BOOKS = Integer.getInteger("benchmark.books", 50_000);
+    private static final int SHELF = 100;
+    private static final int QUERIES = 10_000;
+    private static final int SELF_JOIN_QUERIES = 100;
+    private static final int UPDATES = 100_000;
+    private static final String SELF_JOIN =
+            "SELECT other.book_id, COUNT(DISTINCT other.user_id) AS readers FROM loans mine " +
+            "JOIN loans other ON other.user_id = mine.user_id AND other.book_id <> mine.book_id " +
+            "WHERE mine.book_id = ? GROUP BY other.book_id ORDER BY readers DESC LIMIT 10";
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DELETE FROM loans WHERE user_id IN " +
+                "(SELECT id FROM users WHERE email LIKE 'bench-reader-%')");
+        jdbcTemplate.execute("DELETE FROM users WHERE email LIKE 'bench-reader-%'");
+        jdbcTemplate.execute("DELETE FROM books WHERE isbn LIKE 'BENCH-%'");
+        recommendationService.rebuild();
+    }
+
+    @Test
+    void buildUpdateAndQuery() {
+        seed();
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        recommendationService.rebuild();
+        double buildSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        double modelBytes = meterRegistry.get("library.recommendations.model.size").gauge().value();
+        System.out.printf("model build        loans=%d users=%d books=%d build=%.1fs arrays=%dMB heap delta=%dMB%n",
+                LOANS, USERS, BOOKS, buildSeconds, (long) modelBytes >> 20, (heapAfter - heapBefore) >> 20);
+
+        Random random = new Random(5);
+        List<UUID> books = new ArrayList<>();
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            books.add(bookId(1 + random.nextInt(BOOKS)));
+            users.add(userId(1 + random.nextInt(USERS)));
+        }
+
+        report("related ids", measure(books, id -> recommendationService.getRelatedBookIds(id, 10)));
+        report("reader ids", measure(users, id -> recommendationService.getRecommendedBookIds(id, 10)));
+        report("related books", measure(books, id -> recommendationService.getRelatedBooks(id, 10)));
+        report("related self-join", measure(books.subList(0, SELF_JOIN_QUERIES),
+                id -> jdbcTemplate.queryForList(SELF_JOIN, id)));
+
+        start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            recommendationService.bookBorrowed(
+                    new BookBorrowedEvent(userId(1 + random.nextInt(USERS)), bookId(1 + random.nextInt(BOOKS))));
+        }
+        double updateSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("incremental update loans=%d elapsed=%.2fs throughput=%.0f loans/s%n",
+                UPDATES, updateSeconds, UPDATES / updateSeconds);
+
+        List<BookDTO> related = recommendationService.getRelatedBooks(bookId(1), 10);
+        assertFalse(related.isEmpty());
+    }
+
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO books (id, title, author, isbn, stock_quantity, created_at, updated_at) " +
+                "SELECT md5('bench-book-' || g)::uuid, 'Bench book ' || g, 'Bench author ' || (g / ?), " +
+                "'BENCH-' || g, 1, now(), now() FROM generate_series(1, ?) g", SHELF, BOOKS);
+        jdbcTemplate.update("INSERT INTO users (id, email, name, role, created_at, updated_at) " +
+                "SELECT md5('bench-reader-' || g)::uuid, 'bench-reader-' || g || '@example.com', 'Reader ' || g, " +
+                "'USER', now(), now() FROM generate_series(1, ?) g", USERS);
+        // Half of each reader's loans come from their own shelf of 100 books, the rest from the whole
+        // catalog, skewed towards the lower numbers so that some books are bestsellers
+        jdbcTemplate.update("INSERT INTO loans (id, user_id, book_id, borrowed_at, due_date, returned_at, status) " +
+                "SELECT gen_random_uuid(), md5('bench-reader-' || u)::uuid, md5('bench-book-' || " +
+                "CASE WHEN random() < 0.5 THEN 1 + (u * 37 % (? / ?)) * ? + floor(random() * ?)::int " +
+                "ELSE 1 + floor(? * random() ^ 2)::int END)::uuid, " +
+                "now() - g * interval '1 second', current_date, now(), 'RETURNED' " +
+                "FROM generate_series(1, ?) g, LATERAL (SELECT g % ? + 1 AS u) reader",
+                BOOKS, SHELF, SHELF, SHELF, BOOKS, LOANS, USERS);
+        jdbcTemplate.execute("ANALYZE books, users, loans");
+    }
+
+    private static UUID bookId(int i) {
+        return md5Uuid("bench-book-" + i);
+    }
+
+    private static UUID userId(int i) {
+        return md5Uuid("bench-reader-" + i);
+    }
+
+    // Same value as md5(text)::uuid in the seed
+    private static UUID md5Uuid(String text) {
+        try {
+            byte[] md5 = MessageDigest.getInstance("MD5").digest(text.getBytes(StandardCharsets.UTF_8));
+            long msb = 0;
+            long lsb = 0;
+            for (int i = 0; i < 8; i++) {
+                msb = (msb << 8) | (md5[i] & 0xFF);
+                lsb = (lsb << 8) | (md5[8 + i] & 0xFF);
+            }
+            return new UUID(msb, lsb);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private <T> long[] measure(List<T> queries, Consumer<T> query) {
+        // Warm up before timing
+        queries.stream().limit(100).forEach(query);
+
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            query.accept(queries.get(i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private void report(String label, long[] sortedNanos) {
+        double mean = Arrays.stream(sortedNanos).average().orElse(0) / 1_000.0;
+        double p50 = sortedNanos[sortedNanos.length / 2] / 1_000.0;
+        double p99 = sortedNanos[(int) (sortedNanos.length * 0.99)] / 1_000.0;
+        System.out.printf("%-18s loans=%d queries=%d mean=%.1fus p50=%.1fus p99=%.1fus%n",
+                label, LOANS, sortedNanos.length, mean, p50, p99);
+    }
+}
@@ -0,0 +1,130 @@
+package com.libstack.benchmark;
+
+import com.libstack.LibraryApplication;
+import com.libstack.model.UuidV7Generator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application twice, on platform threads and on virtual threads with the database bulkhead,
+ * and drives GET /api/v1/books from a fixed number of concurrent clients, reporting throughput and tail latency.
+ * Requests still waiting for a bulkhead permit after -Dbenchmark.acquireTimeout (default 5s) count as failed.
+ * Run with: mvn test -Pbenchmark -Dtest=VirtualThreadLoadBenchmarkTests -Dbenchmark.clients=2000 -Dbenchmark.requests=40000
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTests {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 2_000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 10_000);
+    private static final String ACQUIRE_TIMEOUT = System.getProperty("benchmark.acquireTimeout", "5s");
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        platform.report("platform threads");
+        virtual.report("virtual threads");
+        assertTrue(platform.ok() > 0 && virtual.ok() > 0);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        // Passed as arguments so they override the test application.yml
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--app.bulkhead.acquire-timeout=" + ACQUIRE_TIMEOUT,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.springframework.security=WARN")) {
+            seedBooks(context.getBean(JdbcTemplate.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return drive(URI.create("http://localhost:" + port + "/api/v1/books?size=20"));
+        }
+    }
+
+    private void seedBooks(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            rows.add(new Object[]{UuidV7Generator.next(), "Load Title " + i, "Author " + i, "LOAD-" + i, 1, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (id, title, author, isbn, stock_quantity, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private Result drive(URI uri) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        AtomicInteger remaining = new AtomicInteger(REQUESTS);
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger recorded = new AtomicInteger();
+
+        try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Warm up the JIT and the connection pool
+            for (int i = 0; i < 200; i++) {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[recorded.getAndIncrement()] = System.nanoTime() - sent;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            Arrays.sort(latencies);
+            return new Result(REQUESTS - failures.get(), failures.get(), seconds, latencies);
+        }
+    }
+
+    private record Result(int ok, int failed, double seconds, long[] sortedNanos) {
+
+        void report(String label) {
+            double p50 = sortedNanos[sortedNanos.length / 2] / 1_000_000.0;
+            double p99 = sortedNanos[(int) (sortedNanos.length * 0.99)] / 1_000_000.0;
+            double max = sortedNanos[sortedNanos.length - 1] / 1_000_000.0;
+            System.out.printf("%-17s clients=%d requests=%d ok=%d failed=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms max=%.1fms%n",
+                    label, CLIENTS, sortedNanos.length, ok, failed, ok / seconds, p50, p99, max);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.libstack.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A database created by the former ddl-auto: update holds only the V1 tables. It is adopted with
+ * baseline-on-migrate at version 1, so V1 never runs on it and every later object must come from V2 on.
+ */
+@SpringBootTest
+class BaselineMigrationTests {
+
+    private static final String SCHEMA = "ddl_auto_baseline";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void baselinedDatabaseGetsTheSearchColumnAndIndexes() {
+        // The tables ddl-auto created, then nothing Flyway knows about
+        flyway().target("1").load().migrate();
+        assertEquals(List.of(), searchVectorColumn());
+        jdbcTemplate.execute("DROP TABLE " + SCHEMA + ".flyway_schema_history");
+
+        flyway().baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+        assertEquals(List.of("search_vector"), searchVectorColumn());
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = ? ORDER BY indexname", String.class, SCHEMA);
+        for (String index : List.of("idx_books_search", "idx_books_title_id", "idx_books_updated_at",
+                "idx_loans_borrowed_at_id", "idx_loans_user_borrowed_at_id", "idx_loans_active_due_date",
+                "idx_loans_overdue_due_date")) {
+            assertTrue(indexes.contains(index), index);
+        }
+    }
+
+    private List<String> searchVectorColumn() {
+        return jdbcTemplate.queryForList("SELECT column_name FROM information_schema.columns " +
+                "WHERE table_schema = ? AND table_name = 'books' AND column_name = 'search_vector'",
+                String.class, SCHEMA);
+    }
+
+    private FluentConfiguration flyway() {
+        return Flyway.configure().dataSource(dataSource).schemas(SCHEMA).defaultSchema(SCHEMA);
+    }
+}
@@ -0,0 +1,89 @@
+package com.libstack.config;
+
+import com.libstack.model.User;
+import com.libstack.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CachingAuthenticationProviderTests {
+
+    private static final String EMAIL = "reader@example.com";
+    private static final String PASSWORD = "correct horse";
+
+    private final AtomicInteger verifications = new AtomicInteger();
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        PasswordEncoder countingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                verifications.incrementAndGet();
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        };
+
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setName("Reader");
+        user.setPassword(bcrypt.encode(PASSWORD));
+        user.setProvider("LOCAL");
+        user.setRole("USER");
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        provider = new CachingAuthenticationProvider(userRepository, countingEncoder, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void repeatedLoginVerifiesPasswordOnce() {
+        Authentication first = provider.authenticate(credentials(PASSWORD));
+        Authentication second = provider.authenticate(credentials(PASSWORD));
+
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void wrongPasswordIsRejectedEvenWhenCached() {
+        provider.authenticate(credentials(PASSWORD));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("wrong")));
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void evictForcesVerification() {
+        provider.authenticate(credentials(PASSWORD));
+        provider.evict(EMAIL);
+        provider.authenticate(credentials(PASSWORD));
+
+        assertEquals(2, verifications.get());
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials(String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, password);
+    }
+}
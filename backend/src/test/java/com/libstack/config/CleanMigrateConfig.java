@@ -0,0 +1,21 @@
+package com.libstack.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Rebuilds the schema from the migrations whenever a test context starts, as create-drop did
+ * before the schema moved to Flyway.
+ */
+@Configuration
+public class CleanMigrateConfig {
+
+    @Bean
+    public FlywayMigrationStrategy cleanMigrateStrategy() {
+        return flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.libstack.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DatabaseBulkheadFilterTests {
+
+    @Test
+    void rejectsRequestsBeyondPermitsWith503() throws Exception {
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(1, Duration.ofMillis(50));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(apiRequest(), new MockHttpServletResponse(), (request, response) -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        entered.await(5, TimeUnit.SECONDS);
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        AtomicInteger calls = new AtomicInteger();
+        filter.doFilter(apiRequest(), rejected, (request, response) -> calls.incrementAndGet());
+        assertEquals(503, rejected.getStatus());
+        assertEquals(0, calls.get());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(apiRequest(), admitted, (request, response) -> calls.incrementAndGet());
+        assertEquals(200, admitted.getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void ignoresNonApiRequests() throws Exception {
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(0, Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                (request, response) -> calls.incrementAndGet());
+        assertEquals(1, calls.get());
+    }
+
+    private static MockHttpServletRequest apiRequest() {
+        return new MockHttpServletRequest("GET", "/api/v1/books");
+    }
+}
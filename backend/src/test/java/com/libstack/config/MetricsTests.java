@@ -0,0 +1,60 @@
+package com.libstack.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void apiRequestRecordsServiceTimerAndStatementCount() throws Exception {
+        mockMvc.perform(get("/api/v1/books")).andExpect(status().isOk());
+
+        Timer serviceTimer = meterRegistry.find(MetricsConfig.SERVICE_TIMER)
+                .tag("class", "com.libstack.service.BookService")
+                .tag("method", "getAllBooks")
+                .timer();
+        assertNotNull(serviceTimer);
+        assertTrue(serviceTimer.count() >= 1);
+
+        DistributionSummary statements = meterRegistry.find(MetricsConfig.STATEMENTS_PER_REQUEST)
+                .tag("uri", "/api/v1/books")
+                .summary();
+        assertNotNull(statements);
+        assertTrue(statements.totalAmount() >= 1);
+    }
+
+    @Test
+    void prometheusEndpointExposesPoolAndHibernateMeters() throws Exception {
+        mockMvc.perform(get("/api/v1/books")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("library_service_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_statements_total")));
+    }
+}
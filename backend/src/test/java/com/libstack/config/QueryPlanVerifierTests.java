@@ -0,0 +1,59 @@
+package com.libstack.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds enough rows for the planner to prefer indexes, then checks the migrated schema serves every
+ * repository query without sequentially scanning books or loans. The seed is rolled back after each test.
+ */
+@SpringBootTest
+@Transactional
+class QueryPlanVerifierTests {
+
+    @Autowired
+    private QueryPlanVerifier queryPlanVerifier;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("INSERT INTO categories (id, name) " +
+                "SELECT md5('plan-c-' || g)::uuid, 'Plan category ' || g FROM generate_series(1, 200) g");
+        jdbcTemplate.execute("INSERT INTO books (id, title, author, isbn, stock_quantity, category_id, updated_at) " +
+                "SELECT md5('plan-b-' || g)::uuid, 'Title ' || g, 'Author ' || (g % 500), 'plan-' || g, g % 4, " +
+                "md5('plan-c-' || (g % 200 + 1))::uuid, now() FROM generate_series(1, 20000) g");
+        jdbcTemplate.execute("INSERT INTO users (id, email, name, provider, provider_id) " +
+                "SELECT md5('plan-u-' || g)::uuid, 'plan-' || g || '@example.com', 'Reader ' || g, 'LOCAL', g " +
+                "FROM generate_series(1, 2000) g");
+        jdbcTemplate.execute("INSERT INTO loans (id, user_id, book_id, borrowed_at, due_date, status) " +
+                "SELECT md5('plan-l-' || g)::uuid, md5('plan-u-' || (g % 2000 + 1))::uuid, md5('plan-b-' || g)::uuid, " +
+                "now() - g * interval '1 minute', current_date + (g % 30 - 10), " +
+                "CASE g % 10 WHEN 0 THEN 'ACTIVE' WHEN 1 THEN 'OVERDUE' ELSE 'RETURNED' END " +
+                "FROM generate_series(1, 20000) g");
+        jdbcTemplate.execute("ANALYZE categories, books, users, loans");
+    }
+
+    @Test
+    void migratedIndexesServeEveryRepositoryQuery() {
+        assertEquals(List.of(), queryPlanVerifier.verify());
+    }
+
+    @Test
+    void missingIndexIsReportedAsSequentialScan() {
+        jdbcTemplate.execute("DROP INDEX idx_books_category_id");
+
+        List<String> violations = queryPlanVerifier.verify();
+        assertTrue(violations.contains("BookRepository.findAll (category): Seq Scan on books"), violations::toString);
+    }
+}
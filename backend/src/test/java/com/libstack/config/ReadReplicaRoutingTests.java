@@ -0,0 +1,198 @@
+package com.libstack.config;
+
+import com.libstack.controller.ConditionalGet;
+import com.libstack.model.Book;
+import com.libstack.repository.BookRepository;
+import com.libstack.service.BookService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The "replica" is the test database itself under another application_name, which is enough to see where
+ * each connection was routed. The second replica is unreachable and must never be picked.
+ */
+@SpringBootTest(properties = "app.datasource.replicas="
+        + "jdbc:postgresql://localhost:5432/library?ApplicationName=library-replica,"
+        + "jdbc:postgresql://localhost:1/library")
+class ReadReplicaRoutingTests {
+
+    private static final String REPLICA = "library-replica";
+
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    private ReadReplicaConfig.ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager sharedEntityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ConditionalGet conditionalGet;
+
+    @BeforeEach
+    void checkReplicas() {
+        lagMonitor.check();
+    }
+
+    @AfterEach
+    void unpin() {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToAnAvailableReplica() {
+        assertEquals(1, routing.availableReplicas());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(REPLICA, applicationName(true));
+        }
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        assertEquals("PostgreSQL JDBC Driver", applicationName(false));
+        assertEquals("PostgreSQL JDBC Driver", jdbcTemplate.queryForObject(
+                "SELECT current_setting('application_name')", String.class));
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenReplicasLag() {
+        // No replica can be less than 0 ms behind
+        routing.checkReplicas(Duration.ofMillis(-1));
+
+        assertEquals(0, routing.availableReplicas());
+        assertEquals("PostgreSQL JDBC Driver", applicationName(true));
+    }
+
+    @Test
+    void writerReadsFromThePrimaryAfterAWrite() throws Exception {
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofMinutes(1));
+        MockHttpServletRequest borrow = request("POST", "reader@example.com");
+        interceptor.preHandle(borrow, new MockHttpServletResponse(), null);
+        interceptor.afterCompletion(borrow, new MockHttpServletResponse(), null, null);
+
+        MockHttpServletRequest otherUser = request("GET", "someone@example.com");
+        interceptor.preHandle(otherUser, new MockHttpServletResponse(), null);
+        assertEquals(REPLICA, applicationName(true));
+        interceptor.afterCompletion(otherUser, new MockHttpServletResponse(), null, null);
+
+        MockHttpServletRequest myLoans = request("GET", "reader@example.com");
+        interceptor.preHandle(myLoans, new MockHttpServletResponse(), null);
+        assertEquals("PostgreSQL JDBC Driver", applicationName(true));
+        interceptor.afterCompletion(myLoans, new MockHttpServletResponse(), null, null);
+
+        assertEquals(REPLICA, applicationName(true));
+    }
+
+    @Test
+    void writeAfterAReadInTheSameSessionGoesToThePrimary() {
+        // As open-in-view does: one EntityManager spans every transaction of the request
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            assertEquals(REPLICA, applicationName(true));
+            assertEquals("PostgreSQL JDBC Driver", applicationName(false));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+
+    @Test
+    void replicaReadsLeaveTheSecondLevelCacheAlone() {
+        Book book = new Book();
+        book.setTitle("Replicated");
+        book.setAuthor("Author");
+        book.setStockQuantity(1);
+        UUID id = bookRepository.save(book).getId();
+        try {
+            entityManagerFactory.getCache().evict(Book.class, id);
+
+            inTransaction(true, () -> bookRepository.findById(id));
+            assertFalse(entityManagerFactory.getCache().contains(Book.class, id));
+
+            inTransaction(false, () -> bookRepository.findById(id));
+            assertTrue(entityManagerFactory.getCache().contains(Book.class, id));
+        } finally {
+            bookRepository.deleteById(id);
+        }
+    }
+
+    @Test
+    void conditionalGetReadsTheVersionAndTheBodyFromOneDatabase() {
+        List<String> seen = new ArrayList<>();
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/books"));
+        conditionalGet.respond(request,
+                () -> { seen.add(currentApplicationName()); return bookService.getCatalogVersion(); },
+                () -> seen.add(currentApplicationName()));
+        assertEquals(List.of(REPLICA, REPLICA), seen);
+
+        seen.clear();
+        conditionalGet.respondFromPrimary(request,
+                () -> { seen.add(currentApplicationName()); return bookService.getCatalogVersion(); },
+                () -> seen.add(currentApplicationName()));
+        assertEquals(List.of("PostgreSQL JDBC Driver", "PostgreSQL JDBC Driver"), seen);
+    }
+
+    private void inTransaction(boolean readOnly, Runnable work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        transaction.executeWithoutResult(status -> work.run());
+    }
+
+    private String applicationName(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> currentApplicationName());
+    }
+
+    private String currentApplicationName() {
+        return (String) sharedEntityManager
+                .createNativeQuery("SELECT current_setting('application_name')")
+                .getSingleResult();
+    }
+
+    private static MockHttpServletRequest request(String method, String user) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1/loans/my-loans");
+        request.setUserPrincipal(new TestingAuthenticationToken(user, null));
+        return request;
+    }
+}
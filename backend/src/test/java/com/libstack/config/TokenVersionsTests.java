@@ -0,0 +1,74 @@
+package com.libstack.config;
+
+import com.libstack.dto.UserDTO;
+import com.libstack.model.User;
+import com.libstack.repository.UserRepository;
+import com.libstack.service.TokenService;
+import com.libstack.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class TokenVersionsTests {
+
+    private static final String EMAIL = "token-versions@example.com";
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    private UserDTO user;
+
+    @BeforeEach
+    void setUp() {
+        User entity = new User();
+        entity.setEmail(EMAIL);
+        entity.setName("Token Reader");
+        entity.setRole("USER");
+        entity.setProvider("LOCAL");
+        user = userService.getUserById(userRepository.save(entity).getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void roleChangeRevokesEarlierTokens() {
+        String token = tokenService.issueToken(user).getToken();
+        assertEquals(EMAIL, jwtDecoder.decode(token).getSubject());
+
+        UserDTO promoted = userService.updateUserRole(user.getId(), "ADMIN");
+
+        assertThrows(JwtValidationException.class, () -> jwtDecoder.decode(token));
+        String fresh = tokenService.issueToken(promoted).getToken();
+        assertEquals(EMAIL, jwtDecoder.decode(fresh).getSubject());
+    }
+
+    @Test
+    void deletingTheUserRevokesTheirTokens() {
+        String token = tokenService.issueToken(user).getToken();
+        jwtDecoder.decode(token);
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(JwtValidationException.class, () -> jwtDecoder.decode(token));
+    }
+}
@@ -0,0 +1,171 @@
+package com.libstack.controller;
+
+import com.libstack.dto.CreateCategoryRequest;
+import com.libstack.model.Book;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.CategoryRepository;
+import com.libstack.repository.UserRepository;
+import com.libstack.service.CategoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+    private static final String EMAIL = "conditional-get@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String suffix = String.valueOf(System.nanoTime());
+
+    @AfterEach
+    void cleanUp() {
+        categoryRepository.findAll().stream()
+                .filter(category -> category.getName().endsWith(suffix))
+                .forEach(categoryRepository::delete);
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void matchingETagShortCircuitsWithoutLoadingThePage() throws Exception {
+        categoryService.createCategory(category("Validators " + suffix));
+        String etag = mockMvc.perform(get("/api/v1/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30, must-revalidate, public"))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        // Only the two version counters are read; neither the page nor its count query is executed
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deletingABookInvalidatesTheListETag() throws Exception {
+        Book book = new Book();
+        book.setTitle("Etag Book " + suffix);
+        book.setAuthor("Etag Author");
+        book.setStockQuantity(1);
+        UUID bookId = bookRepository.save(book).getId();
+        String etag = mockMvc.perform(get("/api/v1/books"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        bookRepository.deleteById(bookId);
+
+        mockMvc.perform(get("/api/v1/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void writesThatChangeNoRowsKeepTheListETag() throws Exception {
+        Book book = new Book();
+        book.setTitle("Etag Book " + suffix);
+        book.setAuthor("Etag Author");
+        book.setStockQuantity(0);
+        UUID bookId = bookRepository.save(book).getId();
+        String etag = mockMvc.perform(get("/api/v1/books"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // A borrow refused for lack of stock
+        assertEquals(0, jdbcTemplate.update(
+                "UPDATE books SET stock_quantity = stock_quantity - 1 WHERE id = ? AND stock_quantity > 0", bookId));
+
+        mockMvc.perform(get("/api/v1/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        bookRepository.deleteById(bookId);
+    }
+
+    @Test
+    void categoryChangesInvalidateListETags() throws Exception {
+        String categoriesEtag = mockMvc.perform(get("/api/v1/categories"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String booksEtag = mockMvc.perform(get("/api/v1/books"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        UUID id = categoryService.createCategory(category("Etag " + suffix)).getId();
+
+        mockMvc.perform(get("/api/v1/categories").header(HttpHeaders.IF_NONE_MATCH, categoriesEtag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Etag " + suffix)));
+        mockMvc.perform(get("/api/v1/books").header(HttpHeaders.IF_NONE_MATCH, booksEtag))
+                .andExpect(status().isOk());
+
+        String categoryEtag = mockMvc.perform(get("/api/v1/categories/" + id))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/v1/categories/" + id).header(HttpHeaders.IF_NONE_MATCH, categoryEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void authenticatedResponsesAreNotStoredBySharedCaches() throws Exception {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setName("Conditional Get");
+        user.setPassword(passwordEncoder.encode("password"));
+        user.setProvider("LOCAL");
+        user.setRole("USER");
+        userRepository.save(user);
+        String basic = "Basic " + Base64.getEncoder()
+                .encodeToString((EMAIL + ":password").getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/api/v1/categories").header(HttpHeaders.AUTHORIZATION, basic))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+    }
+
+    private static CreateCategoryRequest category(String name) {
+        CreateCategoryRequest request = new CreateCategoryRequest();
+        request.setName(name);
+        return request;
+    }
+}
@@ -0,0 +1,93 @@
+package com.libstack.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.libstack.dto.CreateBookRequest;
+import com.libstack.repository.BookRepository;
+import com.libstack.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WireFormatTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final String suffix = String.valueOf(System.nanoTime());
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 12; i++) {
+            CreateBookRequest request = new CreateBookRequest();
+            request.setTitle("Wire Format " + i);
+            request.setAuthor("Author " + i);
+            request.setIsbn("WF-" + i + "-" + suffix);
+            request.setDescription("A description long enough to push the page past the compression threshold.");
+            request.setStockQuantity(1);
+            bookService.createBook(request);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.findAll().stream()
+                .filter(book -> book.getIsbn() != null && book.getIsbn().endsWith(suffix))
+                .forEach(bookRepository::delete);
+    }
+
+    @Test
+    void jsonPagesAreGzippedWithTheSlimEnvelope() throws Exception {
+        HttpResponse<byte[]> response = get("application/json", "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        JsonNode page = new ObjectMapper().readTree(new GZIPInputStream(new ByteArrayInputStream(response.body())));
+        assertTrue(page.get("content").isArray());
+        assertTrue(page.get("page").get("totalElements").asLong() >= 12);
+        assertFalse(page.has("pageable"));
+    }
+
+    @Test
+    void cborIsNegotiatedFromTheAcceptHeader() throws Exception {
+        HttpResponse<byte[]> response = get("application/cbor", "identity");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/cbor", response.headers().firstValue("Content-Type").orElse(null));
+        JsonNode page = new ObjectMapper(new CBORFactory()).readTree(response.body());
+        assertEquals(12, page.get("page").get("size").asInt());
+        assertTrue(page.get("content").get(0).has("title"));
+    }
+
+    private HttpResponse<byte[]> get(String accept, String encoding) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/books"))
+                .header("Accept", accept)
+                .header("Accept-Encoding", encoding)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
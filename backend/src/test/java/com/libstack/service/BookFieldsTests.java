@@ -0,0 +1,113 @@
+package com.libstack.service;
+
+import com.libstack.config.QueryCountInspector;
+import com.libstack.dto.CreateBookRequest;
+import com.libstack.dto.CreateCategoryRequest;
+import com.libstack.repository.BookFilter;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.CategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookFieldsTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private QueryCountInspector queryCountInspector;
+
+    private final String suffix = String.valueOf(System.nanoTime());
+    private UUID categoryId;
+    private BookFilter inCategory;
+
+    @BeforeEach
+    void setUp() {
+        CreateCategoryRequest category = new CreateCategoryRequest();
+        category.setName("Projection " + suffix);
+        categoryId = categoryService.createCategory(category).getId();
+        for (int i = 0; i < 3; i++) {
+            CreateBookRequest request = new CreateBookRequest();
+            request.setTitle("Projection " + i);
+            request.setAuthor("Author " + i);
+            request.setIsbn("PF-" + i + "-" + suffix);
+            request.setDescription("Not needed by the grid");
+            request.setStockQuantity(i);
+            request.setCategoryId(categoryId);
+            bookService.createBook(request);
+        }
+        inCategory = new BookFilter(null, categoryId, null, null, null, null);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.findAll().stream()
+                .filter(book -> book.getIsbn() != null && book.getIsbn().endsWith(suffix))
+                .forEach(bookRepository::delete);
+        categoryRepository.deleteById(categoryId);
+    }
+
+    @Test
+    void gridFieldsSelectOnlyBookColumnsWithoutTheCategoryJoin() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        String select = executedSelect(() -> rows.addAll(bookService.getBookFields("title,author,available",
+                inCategory, PageRequest.of(0, 12, Sort.by("title"))).getContent()));
+
+        assertEquals(3, rows.size());
+        Map<String, Object> first = rows.get(0);
+        assertEquals(List.of("id", "title", "author", "available"), List.copyOf(first.keySet()));
+        assertEquals("Projection 0", first.get("title"));
+        assertEquals(false, first.get("available"));
+        assertFalse(select.contains("description"));
+        assertFalse(select.contains("join"));
+    }
+
+    @Test
+    void categoryNameAddsTheJoin() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        String select = executedSelect(() -> rows.addAll(bookService.getBookFields("title,categoryName",
+                inCategory, PageRequest.of(0, 12)).getContent()));
+
+        assertEquals("Projection " + suffix, rows.get(0).get("categoryName"));
+        assertTrue(select.contains("left join categories"));
+    }
+
+    @Test
+    void unknownFieldsAreRejected() {
+        assertThrows(RuntimeException.class,
+                () -> bookService.getBookFields("title,password", BookFilter.NONE, PageRequest.of(0, 12)));
+    }
+
+    private String executedSelect(Runnable work) {
+        return queryCountInspector.capture(work).stream()
+                .map(String::toLowerCase)
+                .filter(sql -> sql.startsWith("select") && !sql.contains("count("))
+                .findFirst()
+                .orElseThrow();
+    }
+}
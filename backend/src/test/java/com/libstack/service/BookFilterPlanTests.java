@@ -0,0 +1,128 @@
+package com.libstack.service;
+
+import com.libstack.config.QueryCountInspector;
+import com.libstack.config.QueryPlanVerifier;
+import com.libstack.dto.BookDTO;
+import com.libstack.repository.BookFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the catalog filter for every combination of its indexed criteria (search, category, author, added
+ * range), with and without the availability refinement, and EXPLAINs the SQL each one issued. The seed is
+ * rolled back after each test.
+ */
+@SpringBootTest
+@Transactional
+class BookFilterPlanTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private QueryCountInspector queryCountInspector;
+
+    @Autowired
+    private QueryPlanVerifier queryPlanVerifier;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID categoryId;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("INSERT INTO categories (id, name) " +
+                "SELECT md5('filter-c-' || g)::uuid, 'Filter category ' || g FROM generate_series(1, 200) g");
+        jdbcTemplate.execute("INSERT INTO books (id, title, author, isbn, stock_quantity, category_id, " +
+                "created_at, updated_at) " +
+                "SELECT md5('filter-b-' || g)::uuid, 'Title ' || g || CASE g % 50 WHEN 0 THEN ' lighthouse' ELSE '' END, " +
+                "'Author ' || (g % 500), 'filter-' || g, g % 4, md5('filter-c-' || (g % 200 + 1))::uuid, " +
+                "now() - g * interval '1 hour', now() FROM generate_series(1, 20000) g");
+        jdbcTemplate.execute("ANALYZE categories, books");
+        categoryId = jdbcTemplate.queryForObject("SELECT md5('filter-c-1')::uuid", UUID.class);
+    }
+
+    @Test
+    void everyCombinationIsServedByAnIndex() {
+        List<String> violations = new ArrayList<>();
+        for (int mask = 1; mask < 16; mask++) {
+            for (Boolean available : new Boolean[] {null, true}) {
+                BookFilter filter = new BookFilter(
+                        (mask & 1) != 0 ? "lighthouse" : null,
+                        (mask & 2) != 0 ? categoryId : null,
+                        available,
+                        (mask & 4) != 0 ? "author 200" : null,
+                        (mask & 8) != 0 ? TODAY.minusDays(30) : null,
+                        (mask & 8) != 0 ? TODAY.minusDays(20) : null);
+                // A page size below the match count makes Spring Data issue the count query too
+                List<String> statements = queryCountInspector.capture(
+                        () -> bookService.getAllBooks(filter, PageRequest.of(0, 1)));
+                violations.addAll(queryPlanVerifier.verify(filter.toString(), statements));
+            }
+        }
+        assertEquals(List.of(), violations);
+    }
+
+    @Test
+    void criteriaCombineWithAnd() {
+        // g % 50 = 0 and g % 500 = 250 leave g = 250, 750, ..., all with stock g % 4 = 2
+        BookFilter inStock = new BookFilter("lighthouse", null, true, "Author 250", null, null);
+        BookFilter outOfStock = new BookFilter("lighthouse", null, false, "Author 250", null, null);
+
+        Page<BookDTO> page = bookService.getAllBooks(inStock, PageRequest.of(0, 100));
+
+        assertEquals(40, page.getTotalElements());
+        page.forEach(book -> {
+            assertTrue(book.getTitle().endsWith("lighthouse"));
+            assertEquals("Author 250", book.getAuthor());
+            assertTrue(book.isAvailable());
+        });
+        assertEquals(0, bookService.getAllBooks(outOfStock, PageRequest.of(0, 100)).getTotalElements());
+    }
+
+    @Test
+    void addedRangeIsInclusiveAndPagesAreStable() {
+        BookFilter filter = new BookFilter(null, null, null, null, TODAY.minusDays(3), TODAY.minusDays(2));
+
+        Page<BookDTO> first = bookService.getAllBooks(filter, PageRequest.of(0, 10));
+        Page<BookDTO> second = bookService.getAllBooks(filter, PageRequest.of(1, 10));
+
+        assertEquals(48, first.getTotalElements());
+        assertTrue(first.getContent().stream().noneMatch(second.getContent()::contains));
+    }
+
+    @Test
+    void punctuationOnlySearchesMatchWildcardsLiterally() {
+        jdbcTemplate.update("INSERT INTO books (id, title, author, isbn, stock_quantity, created_at, updated_at) " +
+                "VALUES (gen_random_uuid(), '100% Pure', 'Wildcard', 'wild-1', 1, now(), now()), " +
+                "(gen_random_uuid(), 'snake_case', 'Wildcard', 'wild-2', 1, now(), now()), " +
+                "(gen_random_uuid(), 'Back\\slash', 'Wildcard', 'wild-3', 1, now(), now())");
+
+        assertEquals(List.of("100% Pure"), titles("%"));
+        assertEquals(List.of("snake_case"), titles("_"));
+        assertEquals(List.of("Back\\slash"), titles("\\"));
+    }
+
+    private List<String> titles(String search) {
+        return bookService.getAllBooks(BookFilter.search(search), PageRequest.of(0, 10)).stream()
+                .map(BookDTO::getTitle)
+                .toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.libstack.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookPrefixIndexTests {
+
+    private record Book(UUID id, String title, String author, String isbn, int popularity) {
+    }
+
+    @Test
+    void topMatchesMatchABruteForceRanking() {
+        Random random = new Random(3);
+        List<Integer> popularity = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            popularity.add(i);
+        }
+        Collections.shuffle(popularity, random);
+
+        List<Book> books = new ArrayList<>();
+        BookPrefixIndex.Builder builder = BookPrefixIndex.builder();
+        for (int i = 0; i < popularity.size(); i++) {
+            Book book = new Book(UUID.randomUUID(), word(random) + " " + word(random), word(random),
+                    "978-" + random.nextInt(100_000), popularity.get(i));
+            books.add(book);
+            builder.add(book.id(), book.title(), book.author(), book.isbn(), book.popularity());
+        }
+        BookPrefixIndex index = builder.build();
+
+        for (int i = 0; i < 500; i++) {
+            Book source = books.get(random.nextInt(books.size()));
+            List<String> keys = BookPrefixIndex.keysOf(source.title(), source.author(), source.isbn());
+            String key = keys.get(random.nextInt(keys.size()));
+            String prefix = key.substring(0, 1 + random.nextInt(Math.min(key.length(), 5)));
+
+            List<UUID> expected = books.stream()
+                    .filter(book -> BookPrefixIndex.keysOf(book.title(), book.author(), book.isbn()).stream()
+                            .anyMatch(candidate -> candidate.startsWith(prefix)))
+                    .sorted(Comparator.comparingInt(Book::popularity).reversed())
+                    .limit(10)
+                    .map(Book::id)
+                    .toList();
+            List<UUID> actual = index.top(prefix, 10, id -> false).stream()
+                    .map(BookPrefixIndex.Suggestion::id)
+                    .toList();
+            assertEquals(expected, actual, prefix);
+        }
+    }
+
+    @Test
+    void matchesAreFoldedAndEachBookIsSuggestedOnce() {
+        UUID emile = UUID.randomUUID();
+        UUID skipped = UUID.randomUUID();
+        BookPrefixIndex index = BookPrefixIndex.builder()
+                .add(emile, "Émile's Journal", "Emile Zola", "978-0-13-468599-1", 5)
+                .add(skipped, "Emily of New Moon", "L. M. Montgomery", "978-0-7704-2235-3", 9)
+                .build();
+
+        assertEquals(List.of(emile), ids(index.top("emile", 10, id -> false)));
+        assertEquals(List.of(emile), ids(index.top(BookPrefixIndex.normalizeQuery("EMILE S J"), 10, id -> false)));
+        assertEquals(List.of(emile), ids(index.top(BookPrefixIndex.normalizeQuery("978-0-13"), 10, id -> false)));
+        assertEquals(List.of(skipped, emile), ids(index.top("emil", 10, id -> false)));
+        assertEquals(List.of(emile), ids(index.top("emil", 10, skipped::equals)));
+        assertEquals(List.of(), ids(index.top("emilx", 10, id -> false)));
+        assertEquals("Émile's Journal", index.top("emile", 1, id -> false).get(0).title());
+    }
+
+    @Test
+    void anyWordOfTheTitleOrAuthorStartsAMatch() {
+        UUID potter = UUID.randomUUID();
+        UUID pratchett = UUID.randomUUID();
+        BookPrefixIndex index = BookPrefixIndex.builder()
+                .add(potter, "Harry Potter and the Philosopher's Stone", "J. K. Rowling", "978-0-7475-3269-9", 7)
+                .add(pratchett, "Small Gods", "Terry Pratchett", "978-0-575-05265-6", 3)
+                .build();
+
+        assertEquals(List.of(potter), ids(index.top("potter", 10, id -> false)));
+        assertEquals(List.of(potter), ids(index.top(BookPrefixIndex.normalizeQuery("philosopher's st"), 10, id -> false)));
+        assertEquals(List.of(potter), ids(index.top("rowling", 10, id -> false)));
+        assertEquals(List.of(potter, pratchett), ids(index.top("p", 10, id -> false)));
+        assertEquals(List.of(pratchett), ids(index.top("gods", 10, id -> false)));
+        // Matches start at a word, not inside one
+        assertEquals(List.of(), ids(index.top("otter", 10, id -> false)));
+    }
+
+    @Test
+    void popularityIsLookedUpById() {
+        Random random = new Random(7);
+        BookPrefixIndex.Builder builder = BookPrefixIndex.builder();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // Time-ordered like the generated ids: the high bits barely change from one book to the next
+            UUID id = new UUID(0x01a14cff_0000_7000L + ((long) i << 16), random.nextLong());
+            ids.add(id);
+            builder.add(id, word(random), word(random), null, i);
+        }
+        BookPrefixIndex index = builder.build();
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, index.popularityOf(ids.get(i)));
+        }
+        assertEquals(0, index.popularityOf(UUID.randomUUID()));
+        assertEquals(0, BookPrefixIndex.EMPTY.popularityOf(UUID.randomUUID()));
+    }
+
+    private static List<UUID> ids(List<BookPrefixIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(BookPrefixIndex.Suggestion::id).toList();
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            // A small alphabet so that keys share long prefixes and front coding has work to do
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
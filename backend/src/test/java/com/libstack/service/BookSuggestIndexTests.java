@@ -0,0 +1,86 @@
+package com.libstack.service;
+
+import com.libstack.dto.BookDTO;
+import com.libstack.dto.BookSuggestionDTO;
+import com.libstack.dto.CreateBookRequest;
+import com.libstack.dto.UpdateBookRequest;
+import com.libstack.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class BookSuggestIndexTests {
+
+    @Autowired
+    private BookSuggestIndex bookSuggestIndex;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final List<UUID> bookIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAllById(bookIds);
+        bookSuggestIndex.rebuild();
+    }
+
+    @Test
+    void writesAreSuggestedBeforeTheNextRebuild() {
+        UUID first = createBook("Quokka Island", "Ada Quill");
+        UUID second = createBook("Quokkas of Rottnest", "Ben Stone");
+
+        assertEquals(List.of(first, second), ids(bookSuggestIndex.suggest("quokka", 10)));
+        assertEquals(List.of(first), ids(bookSuggestIndex.suggest("ada qu", 10)));
+
+        UpdateBookRequest rename = new UpdateBookRequest();
+        rename.setTitle("Wombat Island");
+        bookService.updateBook(first, rename);
+        bookService.deleteBook(second);
+        bookIds.remove(second);
+
+        assertEquals(List.of(), ids(bookSuggestIndex.suggest("quokka", 10)));
+        assertEquals(List.of(first), ids(bookSuggestIndex.suggest("wombat", 10)));
+    }
+
+    @Test
+    void rebuildFoldsChangesIntoTheIndex() {
+        UUID book = createBook("Pangolin Tales", "Cora Vance");
+        bookSuggestIndex.rebuild();
+
+        List<BookSuggestionDTO> suggestions = bookSuggestIndex.suggest("PANGOLIN", 10);
+        assertEquals(List.of(book), ids(suggestions));
+        assertEquals("Cora Vance", suggestions.get(0).getAuthor());
+
+        bookService.deleteBook(book);
+        bookIds.remove(book);
+        assertEquals(List.of(), ids(bookSuggestIndex.suggest("pangolin", 10)));
+        bookSuggestIndex.rebuild();
+        assertEquals(List.of(), ids(bookSuggestIndex.suggest("pangolin", 10)));
+    }
+
+    private UUID createBook(String title, String author) {
+        CreateBookRequest request = new CreateBookRequest();
+        request.setTitle(title);
+        request.setAuthor(author);
+        request.setIsbn("suggest-" + UUID.randomUUID());
+        BookDTO book = bookService.createBook(request);
+        bookIds.add(book.getId());
+        return book.getId();
+    }
+
+    private static List<UUID> ids(List<BookSuggestionDTO> suggestions) {
+        return suggestions.stream().map(BookSuggestionDTO::getId).toList();
+    }
+}
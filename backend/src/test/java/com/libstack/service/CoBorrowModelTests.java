@@ -0,0 +1,67 @@
+package com.libstack.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoBorrowModelTests {
+
+    @Test
+    void countsEachReaderOncePerPair() {
+        CoBorrowModel.Builder builder = new CoBorrowModel.Builder();
+        builder.add(0, 0);
+        builder.add(0, 1);
+        builder.add(0, 0);
+        builder.add(1, 0);
+        builder.add(1, 1);
+        builder.add(1, 2);
+        CoBorrowModel model = builder.build(3, 2);
+
+        assertEquals(List.of(List.of(1, 2), List.of(2, 1)), neighbors(model, 0));
+        assertEquals(List.of(List.of(0, 1), List.of(1, 1)), neighbors(model, 2));
+        assertArrayEquals(new int[] {1, 0}, model.history(0));
+        assertEquals(6, model.loans());
+        assertEquals(0, model.history(5).length);
+    }
+
+    @Test
+    void onlyRecentLoansPairAndRowsAreCapped() {
+        int books = CoBorrowModel.HISTORY_LIMIT + 10;
+        CoBorrowModel.Builder builder = new CoBorrowModel.Builder();
+        for (int book = 0; book < books; book++) {
+            builder.add(0, book);
+        }
+        CoBorrowModel model = builder.build(books, 1);
+
+        assertEquals(List.of(), neighbors(model, 0));
+        assertEquals(CoBorrowModel.MAX_NEIGHBORS, neighbors(model, books - 1).size());
+        assertEquals(CoBorrowModel.HISTORY_LIMIT, model.history(0).length);
+        assertEquals(10, model.history(0)[0]);
+    }
+
+    @Test
+    void pruningKeepsTheHighestCounts() {
+        IntCounter counter = new IntCounter();
+        for (int key = 0; key < 1_000; key++) {
+            counter.add(key, 1 + key % 10);
+        }
+        counter.prune(150);
+
+        assertTrue(counter.size() <= 150);
+        assertEquals(100, counter.size());
+        assertEquals(10, counter.get(9));
+        assertEquals(0, counter.get(8));
+        assertArrayEquals(new int[] {9, 19, 29}, counter.top(3));
+    }
+
+    private static List<List<Integer>> neighbors(CoBorrowModel model, int book) {
+        List<List<Integer>> neighbors = new ArrayList<>();
+        model.forEachNeighbor(book, (other, count) -> neighbors.add(List.of(other, count)));
+        return neighbors;
+    }
+}
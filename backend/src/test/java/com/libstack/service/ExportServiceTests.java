@@ -0,0 +1,84 @@
+package com.libstack.service;
+
+import com.libstack.model.Book;
+import com.libstack.model.Loan;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.LoanRepository;
+import com.libstack.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class ExportServiceTests {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Loan loan;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("export-" + System.nanoTime() + "@example.com");
+        user.setName("Export Reader");
+        user.setRole("USER");
+
+        Book book = new Book();
+        book.setTitle("Exported, With Comma");
+        book.setAuthor("Export Author");
+        book.setStockQuantity(2);
+
+        loan = new Loan();
+        loan.setUser(userRepository.save(user));
+        loan.setBook(bookRepository.save(book));
+        loan = loanRepository.save(loan);
+        // The export reads through JDBC, so pending inserts must reach the database first
+        entityManager.flush();
+    }
+
+    @Test
+    void exportsBooksAsCsvWithHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportBooks(out, DataFormat.CSV, false);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("id,title,author"));
+        assertTrue(csv.contains("\"Exported, With Comma\",\"Export Author\""));
+    }
+
+    @Test
+    void exportsLoansAsGzippedNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportLoans(out, DataFormat.NDJSON, true);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(ndjson.lines().anyMatch(line -> line.contains("\"id\":\"" + loan.getId() + "\"")));
+        }
+    }
+}
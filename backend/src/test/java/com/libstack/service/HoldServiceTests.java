@@ -0,0 +1,286 @@
+package com.libstack.service;
+
+import com.libstack.dto.HoldDTO;
+import com.libstack.dto.UpdateBookRequest;
+import com.libstack.model.Book;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Transactional
+@RecordApplicationEvents
+class HoldServiceTests {
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private HoldExpirySweeper holdExpirySweeper;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void holdsAreOnlyForBooksOutOfStock() {
+        UUID userId = saveUser();
+        UUID bookId = saveBook(1);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> placeHold(userId, bookId));
+        assertEquals("Book is available for borrowing", ex.getMessage());
+    }
+
+    @Test
+    void oneOpenHoldPerUserAndBook() {
+        UUID userId = saveUser();
+        UUID bookId = saveBook(0);
+        placeHold(userId, bookId);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> placeHold(userId, bookId));
+        assertEquals("User already has a hold on this book", ex.getMessage());
+    }
+
+    @Test
+    void returnedCopyGoesToTheHeadOfTheQueue() {
+        UUID bookId = saveBook(1);
+        UUID lender = saveUser();
+        UUID first = saveUser();
+        UUID second = saveUser();
+        UUID loanId = loanService.borrowBook(lender, bookId).getId();
+
+        assertEquals(1, placeHold(first, bookId).getPosition());
+        assertEquals(2, placeHold(second, bookId).getPosition());
+
+        loanService.returnBook(loanId);
+
+        HoldDTO ready = onlyHold(first);
+        assertEquals("READY", ready.getStatus());
+        assertNotNull(ready.getExpiresAt());
+        assertEquals(1, onlyHold(second).getPosition());
+        assertEquals(0, stock(bookId));
+        assertEquals(1, events.stream(HoldReadyEvent.class).count());
+
+        // The copy set aside is for the holder only
+        assertThrows(RuntimeException.class, () -> loanService.borrowBook(second, bookId));
+        loanService.borrowBook(first, bookId);
+        assertEquals(List.of(), holdService.getOpenHoldsByUserId(first));
+        assertEquals(0, stock(bookId));
+    }
+
+    @Test
+    void batchReturnServesOneHolderPerCopy() {
+        UUID bookId = saveBook(2);
+        UUID firstLoan = loanService.borrowBook(saveUser(), bookId).getId();
+        UUID secondLoan = loanService.borrowBook(saveUser(), bookId).getId();
+        UUID first = saveUser();
+        UUID second = saveUser();
+        placeHold(first, bookId);
+        placeHold(second, bookId);
+
+        loanService.returnBooks(List.of(firstLoan, secondLoan));
+
+        assertEquals("READY", onlyHold(first).getStatus());
+        assertEquals("READY", onlyHold(second).getStatus());
+        assertEquals(0, stock(bookId));
+    }
+
+    @Test
+    void uncollectedCopyPassesToTheNextHolderThenBackToStock() {
+        UUID bookId = saveBook(1);
+        UUID loanId = loanService.borrowBook(saveUser(), bookId).getId();
+        UUID first = saveUser();
+        UUID second = saveUser();
+        placeHold(first, bookId);
+        placeHold(second, bookId);
+        loanService.returnBook(loanId);
+
+        expireReadyHolds();
+        assertEquals(1, holdExpirySweeper.sweep());
+        assertEquals(List.of(), holdService.getOpenHoldsByUserId(first));
+        assertEquals("READY", onlyHold(second).getStatus());
+
+        expireReadyHolds();
+        assertEquals(1, holdExpirySweeper.sweep());
+        assertEquals(List.of(), holdService.getOpenHoldsByUserId(second));
+        assertEquals(1, stock(bookId));
+    }
+
+    @Test
+    void cancellingAReadyHoldPassesTheCopyOn() {
+        UUID bookId = saveBook(1);
+        UUID loanId = loanService.borrowBook(saveUser(), bookId).getId();
+        UUID first = saveUser();
+        UUID second = saveUser();
+        UUID holdId = placeHold(first, bookId).getId();
+        placeHold(second, bookId);
+        loanService.returnBook(loanId);
+
+        assertEquals("CANCELLED", holdService.cancelHold(first, holdId).getStatus());
+
+        assertEquals("READY", onlyHold(second).getStatus());
+        assertThrows(RuntimeException.class, () -> holdService.cancelHold(first, holdId));
+    }
+
+    @Test
+    void expiredReadyHoldCannotBeCollected() {
+        UUID bookId = saveBook(1);
+        UUID loanId = loanService.borrowBook(saveUser(), bookId).getId();
+        UUID first = saveUser();
+        placeHold(first, bookId);
+        loanService.returnBook(loanId);
+        // Past its pickup window, but not swept yet
+        expireReadyHolds();
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> loanService.borrowBook(first, bookId));
+        assertEquals("Book is not available for borrowing", ex.getMessage());
+        assertEquals(1, holdExpirySweeper.sweep());
+        assertEquals(1, stock(bookId));
+    }
+
+    @Test
+    void cancelLeavesTheLoadedHoldUnwritten() {
+        UUID bookId = saveBook(0);
+        UUID first = saveUser();
+        UUID holdId = placeHold(first, bookId).getId();
+        // A return promotes the hold behind the back of the persistence context that still has it as WAITING
+        jdbcTemplate.update("UPDATE holds SET status = 'READY', ready_at = now(), " +
+                "expires_at = now() + interval '1 day' WHERE id = ?", holdId);
+
+        assertEquals("CANCELLED", holdService.cancelHold(first, holdId).getStatus());
+
+        entityManager.flush();
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM holds WHERE id = ? AND status = 'CANCELLED' AND ready_at IS NOT NULL",
+                Integer.class, holdId));
+        assertEquals(1, stock(bookId));
+    }
+
+    @Test
+    void sweepServesWaitingHoldsFromRestockedCopies() {
+        UUID bookId = saveBook(0);
+        UUID first = saveUser();
+        placeHold(first, bookId);
+        jdbcTemplate.update("UPDATE books SET stock_quantity = 2 WHERE id = ?", bookId);
+
+        holdExpirySweeper.sweep();
+
+        assertEquals("READY", onlyHold(first).getStatus());
+        assertEquals(1, stock(bookId));
+    }
+
+    @Test
+    void restockServesWaitingHoldsRightAway() {
+        UUID bookId = saveBook(0);
+        UUID first = saveUser();
+        UUID second = saveUser();
+        UUID third = saveUser();
+        placeHold(first, bookId);
+        placeHold(second, bookId);
+        placeHold(third, bookId);
+
+        UpdateBookRequest restock = new UpdateBookRequest();
+        restock.setStockQuantity(2);
+        assertEquals(0, bookService.updateBook(bookId, restock).getStockQuantity());
+
+        assertEquals("READY", onlyHold(first).getStatus());
+        assertEquals("READY", onlyHold(second).getStatus());
+        assertEquals(1, onlyHold(third).getPosition());
+        assertEquals(0, stock(bookId));
+        assertEquals(2, events.stream(HoldReadyEvent.class).count());
+    }
+
+    @Test
+    void openHoldsCarryTheirQueuePositions() {
+        UUID firstBook = saveBook(0);
+        UUID secondBook = saveBook(0);
+        UUID reader = saveUser();
+        placeHold(saveUser(), firstBook);
+        placeHold(saveUser(), firstBook);
+        placeHold(reader, firstBook);
+        placeHold(reader, secondBook);
+
+        entityManager.flush();
+        entityManager.clear();
+        Map<UUID, Integer> positions = holdService.getOpenHoldsByUserId(reader).stream()
+            .collect(Collectors.toMap(HoldDTO::getBookId, HoldDTO::getPosition));
+
+        assertEquals(Map.of(firstBook, 3, secondBook, 1), positions);
+    }
+
+    private HoldDTO placeHold(UUID userId, UUID bookId) {
+        entityManager.flush();
+        entityManager.clear();
+        return holdService.placeHold(userId, bookId);
+    }
+
+    private HoldDTO onlyHold(UUID userId) {
+        // Holds and stock are changed by bulk updates that bypass the persistence context
+        entityManager.flush();
+        entityManager.clear();
+        List<HoldDTO> holds = holdService.getOpenHoldsByUserId(userId);
+        assertEquals(1, holds.size());
+        return holds.get(0);
+    }
+
+    private int stock(UUID bookId) {
+        entityManager.flush();
+        entityManager.clear();
+        return bookRepository.findById(bookId).orElseThrow().getStockQuantity();
+    }
+
+    private void expireReadyHolds() {
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE holds SET expires_at = now() - interval '1 hour' WHERE status = 'READY'");
+    }
+
+    private UUID saveUser() {
+        User user = new User();
+        user.setEmail("holder-" + System.nanoTime() + "@example.com");
+        user.setName("Holder");
+        user.setRole("USER");
+        return userRepository.save(user).getId();
+    }
+
+    private UUID saveBook(int stock) {
+        Book book = new Book();
+        book.setTitle("Waitlisted");
+        book.setAuthor("Author");
+        book.setStockQuantity(stock);
+        return bookRepository.saveAndFlush(book).getId();
+    }
+}
@@ -0,0 +1,141 @@
+package com.libstack.service;
+
+import com.libstack.dto.BookDTO;
+import com.libstack.dto.CursorPage;
+import com.libstack.dto.LoanDTO;
+import com.libstack.model.Book;
+import com.libstack.model.Loan;
+import com.libstack.model.User;
+import com.libstack.repository.BookFilter;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.LoanRepository;
+import com.libstack.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Transactional
+class KeysetPaginationTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void bookCursorVisitsEveryBookOnceInTitleOrder() {
+        Set<UUID> expected = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            Book book = new Book();
+            // Repeated titles force the id tie-breaker to be used
+            book.setTitle("Keyset Title " + (i % 4));
+            book.setAuthor("Author");
+            book.setStockQuantity(1);
+            expected.add(bookRepository.save(book).getId());
+        }
+
+        List<BookDTO> seen = new ArrayList<>();
+        CursorPage<BookDTO> page = bookService.getBooksAfter(BookFilter.NONE, "", 10);
+        seen.addAll(page.getContent());
+        while (page.isHasNext()) {
+            page = bookService.getBooksAfter(BookFilter.NONE, page.getNextCursor(), 10);
+            seen.addAll(page.getContent());
+        }
+
+        List<BookDTO> ours = seen.stream().filter(book -> expected.contains(book.getId())).collect(Collectors.toList());
+        assertEquals(expected.size(), ours.size());
+        assertEquals(seen.size(), seen.stream().map(BookDTO::getId).distinct().count());
+        for (int i = 1; i < ours.size(); i++) {
+            assertFalse(ours.get(i - 1).getTitle().compareTo(ours.get(i).getTitle()) > 0);
+        }
+    }
+
+    @Test
+    void bookCursorKeepsTheFilterOnEveryPage() {
+        String author = "Keyset Filter " + System.nanoTime();
+        Set<UUID> expected = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            Book book = new Book();
+            book.setTitle("Filtered Title " + (i % 3));
+            book.setAuthor(i % 2 == 0 ? author : "Someone Else");
+            // Only the in-stock half of the author's books match
+            book.setStockQuantity(i % 4 == 0 ? 1 : 0);
+            Book saved = bookRepository.save(book);
+            if (i % 4 == 0) {
+                expected.add(saved.getId());
+            }
+        }
+        BookFilter filter = new BookFilter(null, null, true, author, null, null);
+
+        List<BookDTO> seen = new ArrayList<>();
+        CursorPage<BookDTO> page = bookService.getBooksAfter(filter, "", 2);
+        seen.addAll(page.getContent());
+        while (page.isHasNext()) {
+            page = bookService.getBooksAfter(filter, page.getNextCursor(), 2);
+            seen.addAll(page.getContent());
+        }
+
+        assertEquals(expected, seen.stream().map(BookDTO::getId).collect(Collectors.toSet()));
+        assertEquals(expected.size(), seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            assertFalse(seen.get(i - 1).getTitle().compareTo(seen.get(i).getTitle()) > 0);
+        }
+    }
+
+    @Test
+    void loanHistoryCursorVisitsEveryLoanOnce() {
+        User user = new User();
+        user.setEmail("keyset-" + System.nanoTime() + "@example.com");
+        user.setName("Keyset Reader");
+        user.setRole("USER");
+        user = userRepository.save(user);
+        for (int i = 0; i < 7; i++) {
+            Book book = new Book();
+            book.setTitle("History " + i);
+            book.setAuthor("Author");
+            book.setStockQuantity(1);
+            Loan loan = new Loan();
+            loan.setUser(user);
+            loan.setBook(bookRepository.save(book));
+            loanRepository.save(loan);
+        }
+
+        Set<UUID> seen = new HashSet<>();
+        CursorPage<LoanDTO> page = loanService.getLoansByUserIdBefore(user.getId(), "", 3);
+        page.getContent().forEach(loan -> seen.add(loan.getId()));
+        while (page.isHasNext()) {
+            page = loanService.getLoansByUserIdBefore(user.getId(), page.getNextCursor(), 3);
+            page.getContent().forEach(loan -> seen.add(loan.getId()));
+        }
+
+        assertEquals(7, seen.size());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(RuntimeException.class, () -> bookService.getBooksAfter(BookFilter.NONE, "not a cursor!", 10));
+    }
+}
@@ -0,0 +1,102 @@
+package com.libstack.service;
+
+import com.libstack.model.Book;
+import com.libstack.model.Loan;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.LoanRepository;
+import com.libstack.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class LoanCounterReconcilerTests {
+
+    @Autowired
+    private LoanCounterReconciler reconciler;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void serviceKeepsTheCounterInStep() {
+        UUID userId = saveUser();
+        UUID first = saveBook();
+        UUID second = saveBook();
+
+        loanService.borrowBook(userId, first);
+        UUID loanId = loanService.borrowBook(userId, second).getId();
+        loanService.returnBook(loanId);
+
+        assertEquals(1, activeLoanCount(userId));
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    @Test
+    void repairsCountersThatDrifted() {
+        UUID corrupted = saveUser();
+        UUID bypassed = saveUser();
+        loanService.borrowBook(corrupted, saveBook());
+        jdbcTemplate.update("UPDATE users SET active_loan_count = 4 WHERE id = ?", corrupted);
+
+        // A loan written without going through LoanService never touches the counter
+        Loan loan = new Loan();
+        loan.setUser(userRepository.getReferenceById(bypassed));
+        loan.setBook(bookRepository.getReferenceById(saveBook()));
+        loan.setDueDate(LocalDate.now().plusDays(14));
+        loan.setStatus("ACTIVE");
+        loanRepository.saveAndFlush(loan);
+
+        assertEquals(2, reconciler.reconcile());
+        assertEquals(1, activeLoanCount(corrupted));
+        assertEquals(1, activeLoanCount(bypassed));
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    private int activeLoanCount(UUID userId) {
+        // The counter is changed by bulk updates that bypass the persistence context
+        entityManager.clear();
+        return userRepository.findById(userId).orElseThrow().getActiveLoanCount();
+    }
+
+    private UUID saveUser() {
+        User user = new User();
+        user.setEmail("counter-" + System.nanoTime() + "@example.com");
+        user.setName("Counter Reader");
+        user.setRole("USER");
+        return userRepository.save(user).getId();
+    }
+
+    private UUID saveBook() {
+        Book book = new Book();
+        book.setTitle("Counted");
+        book.setAuthor("Author");
+        book.setStockQuantity(3);
+        return bookRepository.saveAndFlush(book).getId();
+    }
+}
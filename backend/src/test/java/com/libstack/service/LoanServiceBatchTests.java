@@ -0,0 +1,90 @@
+package com.libstack.service;
+
+import com.libstack.dto.BatchLoanItemDTO;
+import com.libstack.dto.BatchLoanResultDTO;
+import com.libstack.model.Book;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class LoanServiceBatchTests {
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void batchBorrowReportsEachItem() {
+        UUID userId = saveUser();
+        UUID available = saveBook(2);
+        UUID outOfStock = saveBook(0);
+        UUID missing = UUID.randomUUID();
+
+        BatchLoanResultDTO result = loanService.borrowBooks(userId, List.of(available, outOfStock, missing, available));
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+        BatchLoanItemDTO borrowed = result.getItems().get(0);
+        assertTrue(borrowed.isSuccess());
+        assertNotNull(borrowed.getLoan().getId());
+        assertEquals("Book is not available for borrowing", result.getItems().get(1).getError());
+        assertEquals("Book not found with id: " + missing, result.getItems().get(2).getError());
+        assertEquals("User already has an active loan for this book", result.getItems().get(3).getError());
+        // Stock is changed by bulk updates that bypass the persistence context
+        entityManager.clear();
+        assertEquals(1, bookRepository.findById(available).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void batchReturnReleasesEachLoanOnce() {
+        UUID userId = saveUser();
+        UUID bookId = saveBook(1);
+        UUID loanId = loanService.borrowBooks(userId, List.of(bookId)).getItems().get(0).getLoan().getId();
+
+        BatchLoanResultDTO result = loanService.returnBooks(List.of(loanId, loanId));
+
+        assertEquals(1, result.getSucceeded());
+        assertFalse(result.getItems().get(1).isSuccess());
+        entityManager.clear();
+        assertEquals(1, bookRepository.findById(bookId).orElseThrow().getStockQuantity());
+    }
+
+    private UUID saveUser() {
+        User user = new User();
+        user.setEmail("batch-" + System.nanoTime() + "@example.com");
+        user.setName("Batch Reader");
+        user.setRole("USER");
+        return userRepository.save(user).getId();
+    }
+
+    private UUID saveBook(int stock) {
+        Book book = new Book();
+        book.setTitle("Batch Book");
+        book.setAuthor("Batch Author");
+        book.setStockQuantity(stock);
+        return bookRepository.save(book).getId();
+    }
+}
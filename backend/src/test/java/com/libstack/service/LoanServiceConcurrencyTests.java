@@ -0,0 +1,148 @@
+package com.libstack.service;
+
+import com.libstack.model.Book;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.LoanRepository;
+import com.libstack.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LoanServiceConcurrencyTests {
+
+    private static final int STOCK = 10;
+    private static final int BORROWERS = 40;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<UUID> userIds = new ArrayList<>();
+    private final List<UUID> bookIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (UUID bookId : bookIds) {
+            loanRepository.deleteAll(loanRepository.findActiveLoansByBookId(bookId));
+        }
+        bookRepository.deleteAllById(bookIds);
+        userRepository.deleteAllById(userIds);
+    }
+
+    @Test
+    void concurrentBorrowsNeverOversell() throws InterruptedException {
+        UUID bookId = createBook(STOCK);
+        for (int i = 0; i < BORROWERS; i++) {
+            createUser(i);
+        }
+
+        List<Runnable> borrows = new ArrayList<>();
+        for (UUID userId : userIds) {
+            borrows.add(() -> loanService.borrowBook(userId, bookId));
+        }
+        int succeeded = runTogether(borrows);
+
+        assertEquals(STOCK, succeeded);
+        assertEquals(0, bookRepository.findById(bookId).orElseThrow().getStockQuantity());
+        assertEquals(STOCK, loanRepository.findActiveLoansByBookId(bookId).size());
+    }
+
+    @Test
+    void concurrentBorrowsNeverExceedTheLoanLimit() throws InterruptedException {
+        UUID userId = createUser(0);
+        List<Runnable> borrows = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            UUID bookId = createBook(1);
+            borrows.add(() -> loanService.borrowBook(userId, bookId));
+        }
+        int succeeded = runTogether(borrows);
+
+        assertEquals(LoanService.MAX_ACTIVE_LOANS, succeeded);
+        assertEquals(LoanService.MAX_ACTIVE_LOANS, userRepository.findById(userId).orElseThrow().getActiveLoanCount());
+        assertEquals(LoanService.MAX_ACTIVE_LOANS, loanRepository.findActiveBookIdsByUserId(userId).size());
+        // Rejected borrows rolled back their stock reservation
+        int stockLeft = bookRepository.findAllById(bookIds).stream().mapToInt(Book::getStockQuantity).sum();
+        assertEquals(BORROWERS - LoanService.MAX_ACTIVE_LOANS, stockLeft);
+    }
+
+    @Test
+    void concurrentBorrowsOfTheSameBookByOneUserCreateOneLoan() throws InterruptedException {
+        UUID userId = createUser(0);
+        UUID bookId = createBook(STOCK);
+        List<Runnable> borrows = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            borrows.add(() -> loanService.borrowBook(userId, bookId));
+        }
+        int succeeded = runTogether(borrows);
+
+        assertEquals(1, succeeded);
+        assertEquals(1, userRepository.findById(userId).orElseThrow().getActiveLoanCount());
+        assertEquals(STOCK - 1, bookRepository.findById(bookId).orElseThrow().getStockQuantity());
+    }
+
+    private UUID createBook(int stock) {
+        Book book = new Book();
+        book.setTitle("Hot Release");
+        book.setAuthor("Popular Author");
+        book.setStockQuantity(stock);
+        UUID id = bookRepository.save(book).getId();
+        bookIds.add(id);
+        return id;
+    }
+
+    private UUID createUser(int i) {
+        User user = new User();
+        user.setEmail("borrower-" + i + "-" + System.nanoTime() + "@example.com");
+        user.setName("Borrower " + i);
+        user.setRole("USER");
+        UUID id = userRepository.save(user).getId();
+        userIds.add(id);
+        return id;
+    }
+
+    // Releases every task at once and returns how many completed without throwing
+    private static int runTogether(List<Runnable> tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        for (Runnable task : tasks) {
+            executor.submit(() -> {
+                start.await();
+                try {
+                    task.run();
+                    succeeded.incrementAndGet();
+                } catch (RuntimeException ex) {
+                    // rejected
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        return succeeded.get();
+    }
+}
@@ -0,0 +1,108 @@
+package com.libstack.service;
+
+import com.libstack.model.Book;
+import com.libstack.model.Loan;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.LoanRepository;
+import com.libstack.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class LoanServiceQueryCountTests {
+
+    private static final int LOANS = 25;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("reader-" + System.nanoTime() + "@example.com");
+        user.setName("Reader");
+        user.setRole("USER");
+        user = userRepository.save(user);
+        userId = user.getId();
+
+        for (int i = 0; i < LOANS; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setAuthor("Author " + i);
+            book.setStockQuantity(1);
+            book = bookRepository.save(book);
+
+            Loan loan = new Loan();
+            loan.setUser(user);
+            loan.setBook(book);
+            loan.setDueDate(LocalDate.now().minusDays(1));
+            loanRepository.save(loan);
+        }
+
+        loanRepository.markOverdue(LocalDate.now());
+
+        // Start every measurement from an empty persistence context so lazy loads hit the database
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void allLoansPageUsesOneSelectAndOneCount() {
+        loanService.getAllLoans(PageRequest.of(0, PAGE_SIZE));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void loanHistoryPageUsesOneSelectAndOneCount() {
+        loanService.getLoansByUserId(userId, PageRequest.of(0, PAGE_SIZE));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void activeLoansUseOneSelect() {
+        loanService.getActiveLoansByUserId(userId);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void overdueLoansPageUsesOneSelectAndOneCount() {
+        loanService.getOverdueLoans(PageRequest.of(0, PAGE_SIZE));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,113 @@
+package com.libstack.service;
+
+import com.libstack.dto.BookDTO;
+import com.libstack.model.Book;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class RecommendationServiceTests {
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> userIds = new ArrayList<>();
+    private final List<UUID> bookIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (UUID userId : userIds) {
+            jdbcTemplate.update("DELETE FROM loans WHERE user_id = ?", userId);
+        }
+        bookRepository.deleteAllById(bookIds);
+        userRepository.deleteAllById(userIds);
+        recommendationService.rebuild();
+    }
+
+    @Test
+    void borrowsUpdateTheModelAndARebuildAgrees() {
+        UUID x = createBook();
+        UUID y = createBook();
+        UUID z = createBook();
+        UUID w = createBook();
+        UUID ann = createUser();
+        UUID ben = createUser();
+        UUID cal = createUser();
+        borrow(ann, x, y, z);
+        borrow(ben, x, y);
+        borrow(cal, x, w);
+
+        // Applied as each loan committed, without reading loans back
+        assertEquals(List.of(y, z, w), ids(recommendationService.getRelatedBooks(x, 10)));
+        assertEquals(List.of(x, z), ids(recommendationService.getRelatedBooks(y, 10)));
+        assertEquals(List.of(y, z), ids(recommendationService.getRecommendations(cal, 10)));
+        assertEquals(List.of(w), ids(recommendationService.getRecommendations(ann, 10)));
+
+        recommendationService.rebuild();
+
+        assertEquals(List.of(y, z, w), ids(recommendationService.getRelatedBooks(x, 10)));
+        assertEquals(List.of(x, z), ids(recommendationService.getRelatedBooks(y, 10)));
+        assertEquals(List.of(y, z), ids(recommendationService.getRecommendations(cal, 10)));
+        assertEquals(List.of(y), ids(recommendationService.getRecommendations(cal, 1)));
+    }
+
+    @Test
+    void unknownBooksAndReadersGetNothing() {
+        assertEquals(List.of(), recommendationService.getRelatedBooks(UUID.randomUUID(), 10));
+        assertEquals(List.of(), recommendationService.getRecommendations(UUID.randomUUID(), 10));
+    }
+
+    private void borrow(UUID userId, UUID... books) {
+        for (UUID bookId : books) {
+            loanService.borrowBook(userId, bookId);
+        }
+    }
+
+    private UUID createBook() {
+        Book book = new Book();
+        book.setTitle("Shelf Companion " + bookIds.size());
+        book.setAuthor("Paired Author");
+        book.setStockQuantity(5);
+        UUID id = bookRepository.save(book).getId();
+        bookIds.add(id);
+        return id;
+    }
+
+    private UUID createUser() {
+        User user = new User();
+        user.setEmail("reader-" + userIds.size() + "-" + System.nanoTime() + "@example.com");
+        user.setName("Reader " + userIds.size());
+        user.setRole("USER");
+        UUID id = userRepository.save(user).getId();
+        userIds.add(id);
+        return id;
+    }
+
+    private static List<UUID> ids(List<BookDTO> books) {
+        return books.stream().map(BookDTO::getId).toList();
+    }
+}
@@ -0,0 +1,197 @@
+package com.libstack.service;
+
+import com.libstack.dto.CreateCategoryRequest;
+import com.libstack.dto.CreateBookRequest;
+import com.libstack.model.Book;
+import com.libstack.model.User;
+import com.libstack.repository.BookRepository;
+import com.libstack.repository.CategoryRepository;
+import com.libstack.repository.LoanRepository;
+import com.libstack.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SecondLevelCacheTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private String suffix;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        suffix = String.valueOf(System.nanoTime());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.findAll().stream()
+                .filter(book -> book.getIsbn() != null && book.getIsbn().endsWith(suffix))
+                .forEach(bookRepository::delete);
+        categoryRepository.findAll().stream()
+                .filter(category -> category.getName().endsWith(suffix))
+                .forEach(categoryRepository::delete);
+    }
+
+    @Test
+    void categoryIsServedFromSecondLevelCacheAndInvalidatedOnUpdate() {
+        UUID id = categoryService.createCategory(category("Poetry " + suffix)).getId();
+        categoryService.getCategoryById(id);
+
+        statistics.clear();
+        assertEquals("Poetry " + suffix, categoryService.getCategoryById(id).getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+
+        categoryService.updateCategory(id, category("Verse " + suffix));
+        assertEquals("Verse " + suffix, categoryService.getCategoryById(id).getName());
+    }
+
+    @Test
+    void nameLookupsUseQueryCacheAndSeeNewRows() {
+        String name = "Drama " + suffix;
+        assertFalse(categoryRepository.existsByName(name));
+
+        categoryService.createCategory(category(name));
+        assertTrue(categoryRepository.existsByName(name));
+
+        categoryRepository.findByName(name);
+        statistics.clear();
+        assertTrue(categoryRepository.findByName(name).isPresent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void isbnLookupSeesBooksCreatedAfterACachedMiss() {
+        String isbn = "L2-" + suffix;
+        assertTrue(bookRepository.findByIsbn(isbn).isEmpty());
+
+        CreateBookRequest request = new CreateBookRequest();
+        request.setTitle("Cached Title");
+        request.setAuthor("Cached Author");
+        request.setIsbn(isbn);
+        request.setStockQuantity(2);
+        bookService.createBook(request);
+
+        Optional<Book> book = bookRepository.findByIsbn(isbn);
+        assertTrue(book.isPresent());
+
+        statistics.clear();
+        bookRepository.findByIsbn(isbn);
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void borrowEvictsOnlyTheBorrowedBook() {
+        Book borrowed = bookRepository.save(book("Borrowed " + suffix));
+        Book other = bookRepository.save(book("Other " + suffix));
+        User reader = new User();
+        reader.setEmail("l2-reader-" + suffix + "@example.com");
+        reader.setName("Cache Reader");
+        reader.setRole("USER");
+        reader = userRepository.save(reader);
+        bookRepository.findById(borrowed.getId());
+        bookRepository.findById(other.getId());
+
+        try {
+            loanService.borrowBook(reader.getId(), borrowed.getId());
+
+            statistics.clear();
+            assertEquals(2, bookRepository.findById(other.getId()).orElseThrow().getStockQuantity());
+            assertEquals(0, statistics.getPrepareStatementCount());
+            assertEquals(1, statistics.getSecondLevelCacheHitCount());
+            // The borrowed book is read again, with the new stock
+            assertEquals(1, bookRepository.findById(borrowed.getId()).orElseThrow().getStockQuantity());
+            assertEquals(1, statistics.getPrepareStatementCount());
+        } finally {
+            loanRepository.deleteAll(loanRepository.findAll().stream()
+                    .filter(loan -> loan.getBook().getId().equals(borrowed.getId()))
+                    .toList());
+            userRepository.delete(reader);
+        }
+    }
+
+    @Test
+    void regionStatsReportEvictions() throws InterruptedException {
+        // One more category than the categories region holds
+        jdbcTemplate.update("INSERT INTO categories (id, name) " +
+                "SELECT gen_random_uuid(), 'Overflow ' || g || ' ' || ? FROM generate_series(1, 1001) g", suffix);
+        try {
+            categoryRepository.findAll();
+
+            // Caffeine evicts on its maintenance cycle, shortly after the writes
+            long evictions = 0;
+            for (int attempt = 0; attempt < 50 && evictions == 0; attempt++) {
+                Thread.sleep(100);
+                evictions = cacheStatsService.getCacheStats().stream()
+                        .filter(stats -> stats.getName().equals("hibernate:categories"))
+                        .findFirst().orElseThrow()
+                        .getEvictionCount();
+            }
+            assertTrue(evictions > 0);
+        } finally {
+            jdbcTemplate.update("DELETE FROM categories WHERE name LIKE 'Overflow %' AND name LIKE '%' || ?", suffix);
+        }
+    }
+
+    private Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Cached Author");
+        book.setIsbn(title.replace(' ', '-'));
+        book.setStockQuantity(2);
+        return book;
+    }
+
+    private static CreateCategoryRequest category(String name) {
+        CreateCategoryRequest request = new CreateCategoryRequest();
+        request.setName(name);
+        request.setDescription("Test category");
+        return request;
+    }
+}
@@ -0,0 +1,12 @@
+#!/bin/sh
+# Lets the postgres-replica service stream from this server. Runs on the first start of an empty
+# volume; for an existing one run it once with:
+#   docker exec libstack-db sh /docker-entrypoint-initdb.d/init-replication.sh
+set -e
+
+psql -v ON_ERROR_STOP=1 -U "$POSTGRES_USER" -d "$POSTGRES_DB" <<SQL
+CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD '${REPLICATION_PASSWORD:-replicator}';
+SQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
+psql -U "$POSTGRES_USER" -d "$POSTGRES_DB" -c "SELECT pg_reload_conf()"
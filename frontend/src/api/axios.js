@@ -8,11 +8,23 @@ const api = axios.create({
   }
 })
 
+export const TOKEN_KEY = 'libstack.token'
+
+// Send the bearer token issued at login so the backend skips password verification per request
+api.interceptors.request.use(config => {
+  const token = localStorage.getItem(TOKEN_KEY)
+  if (token) {
+    config.headers.Authorization = `Bearer ${token}`
+  }
+  return config
+})
+
 // Response interceptor for error handling
 api.interceptors.response.use(
   response => response,
   error => {
     if (error.response?.status === 401) {
+      localStorage.removeItem(TOKEN_KEY)
       window.location.href = '/login'
     }
     return Promise.reject(error)
@@ -45,7 +57,7 @@ export const loanApi = {
   getMyHistory: (params) => api.get('/api/v1/loans/my-history', { params }),
   borrow: (bookId) => api.post(`/api/v1/loans/borrow/${bookId}`),
   return: (loanId) => api.post(`/api/v1/loans/return/${loanId}`),
-  getOverdue: () => api.get('/api/v1/loans/overdue')
+  getOverdue: (params) => api.get('/api/v1/loans/overdue', { params })
 }
 
 // User API (Admin)
@@ -58,5 +70,5 @@ export const userApi = {
 // Admin Loan API
 export const adminLoanApi = {
   getAll: (params) => api.get('/api/v1/admin/loans', { params }),
-  getOverdue: () => api.get('/api/v1/admin/loans/overdue')
+  getOverdue: (params) => api.get('/api/v1/admin/loans/overdue', { params })
 }
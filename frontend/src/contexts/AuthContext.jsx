@@ -1,5 +1,5 @@
 import { createContext, useContext, useState, useEffect } from 'react'
-import api from '../api/axios'
+import api, { TOKEN_KEY } from '../api/axios'
 
 const AuthContext = createContext(null)
 
@@ -24,14 +24,14 @@ export function AuthProvider({ children }) {
 
   const login = async (email, password) => {
     const response = await api.post('/api/v1/auth/login', { email, password })
-    setUser(response.data)
-    return response.data
+    localStorage.setItem(TOKEN_KEY, response.data.token)
+    setUser(response.data.user)
+    return response.data.user
   }
 
   const register = async (name, email, password) => {
-    const response = await api.post('/api/v1/auth/register', { name, email, password })
-    setUser(response.data)
-    return response.data
+    await api.post('/api/v1/auth/register', { name, email, password })
+    return login(email, password)
   }
 
   const logout = async () => {
@@ -40,6 +40,7 @@ export function AuthProvider({ children }) {
     } catch (error) {
       console.error('Logout error:', error)
     } finally {
+      localStorage.removeItem(TOKEN_KEY)
       setUser(null)
       window.location.href = '/'
     }
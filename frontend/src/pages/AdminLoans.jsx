@@ -15,8 +15,8 @@ function AdminLoans() {
     try {
       let response
       if (activeTab === 'overdue') {
-        response = await adminLoanApi.getOverdue()
-        setLoans(response.data)
+        response = await adminLoanApi.getOverdue({ size: 50 })
+        setLoans(response.data.content || [])
       } else {
         response = await adminLoanApi.getAll({ size: 50 })
         setLoans(response.data.content || [])
@@ -81,7 +81,7 @@ function AdminLoans() {
             </svg>
           </div>
           <div className="stat-content">
-            <h3>{loans.filter(l => l.status === 'ACTIVE').length}</h3>
+            <h3>{loans.filter(l => l.status !== 'RETURNED').length}</h3>
             <p>Active Loans</p>
           </div>
         </div>
@@ -143,7 +143,7 @@ function AdminLoans() {
                         </div>
                         <div>
                           <span style={{ fontWeight: '500' }}>{loan.userName}</span>
-                          {loan.status === 'ACTIVE' && (
+                          {loan.status !== 'RETURNED' && (
                             <div style={{ fontSize: '12px', color: 'var(--text-secondary)', marginTop: '2px' }}>
                               <span className={`badge ${daysInfo.class}`} style={{ fontSize: '10px' }}>
                                 {daysInfo.text}
@@ -25,7 +25,9 @@ function Books() {
     try {
       const params = {
         page: searchParams.get('page') || 0,
-        size: 12
+        size: 12,
+        // The grid only renders these, so skip descriptions and the category join
+        fields: 'title,author,available,stockQuantity'
       }
       
       if (searchParams.get('search')) {
@@ -39,8 +41,8 @@ function Books() {
       const response = await bookApi.getAll(params)
       setBooks(response.data.content || [])
       setPagination({
-        page: response.data.number || 0,
-        totalPages: response.data.totalPages || 1
+        page: response.data.page?.number || 0,
+        totalPages: response.data.page?.totalPages || 1
       })
     } catch (error) {
       console.error('Failed to load books:', error)
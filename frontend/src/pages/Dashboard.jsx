@@ -28,7 +28,7 @@ function Dashboard() {
       ])
 
       setStats({
-        totalBooks: booksRes.data.totalElements || 0,
+        totalBooks: booksRes.data.page?.totalElements || 0,
         availableBooks: booksRes.data.content?.filter(b => b.available).length || 0,
         myActiveLoans: loansRes.data.length,
         categories: categoriesRes.data.length
@@ -224,7 +224,7 @@ function Dashboard() {
                     <td>{new Date(loan.dueDate).toLocaleDateString()}</td>
                     <td>{getStatusBadge(loan)}</td>
                     <td>
-                      {loan.status === 'ACTIVE' && (
+                      {loan.status !== 'RETURNED' && (
                         <button className="btn btn-success btn-sm">
                           Return
                         </button>
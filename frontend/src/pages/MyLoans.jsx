@@ -120,7 +120,7 @@ function MyLoans() {
                         </div>
                         <div>
                           <span style={{ fontWeight: '500' }}>{loan.bookTitle}</span>
-                          {loan.status === 'ACTIVE' && (
+                          {loan.status !== 'RETURNED' && (
                             <div style={{ fontSize: '12px', color: 'var(--text-secondary)', marginTop: '4px' }}>
                               <span className={`badge ${daysInfo.class}`} style={{ fontSize: '11px' }}>
                                 {daysInfo.text}
@@ -144,7 +144,7 @@ function MyLoans() {
                       </div>
                     </td>
                     <td>
-                      {loan.status === 'ACTIVE' && (
+                      {loan.status !== 'RETURNED' && (
                         <button
                           className="btn btn-success btn-sm"
                           onClick={() => handleReturn(loan.id)}